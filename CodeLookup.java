@@ -0,0 +1,18 @@
+//Description: Word to code lookup for the Washington code book. Implemented by
+// the mutable HashTable built from the text file and by the compiled,
+// read-only Codebook loaded from its binary form.
+//Date: 10/17/2026
+
+public interface CodeLookup {
+
+	// This method returns the code for word, or defaultCode if the word is not
+	// in the code book.
+	int getOrDefault(String word, int defaultCode);
+
+	// This method returns the code for the word stored in len bytes of buffer
+	// starting at off (one ISO-8859-1 character per byte), or defaultCode if the
+	// word is not in the code book. It lets streaming callers look words up
+	// without building a String for each one.
+	int getOrDefault(byte[] buffer, int off, int len, int defaultCode);
+
+}
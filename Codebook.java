@@ -0,0 +1,389 @@
+//Description: The Washington code book compiled into a read-only binary form.
+// Because the code book never changes, a build step turns the WashingtonCode
+// and WashingtonCipher text files into one file holding a minimal perfect hash
+// for word -> code, a dense word table for code -> word, and the 26-letter
+// cipher. Loading maps the file into memory and reads nothing else up front,
+// so start-up does no text parsing and no hash table inserts.
+//
+// Build: java Codebook [WashingtonCode] [WashingtonCipher] [WashingtonCode.bin]
+//
+// The perfect hash is hash-and-displace: words are first hashed into buckets
+// of about four; then, largest bucket first, each bucket is given the smallest
+// displacement that sends all of its words to unused slots. A lookup is one
+// hash of the word, one displacement read, one slot read, and a byte compare
+// against the stored word to reject words that are not in the book.
+//Date: 10/17/2026
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+public final class Codebook implements CodeLookup {
+	private static final int MAGIC = 0x57434231; // "WCB1"
+	private static final int HEADER_SIZE = 4 * 5 + 2 * 26;
+	private static final int KEYS_PER_BUCKET = 4;
+	private static final int MAX_DISPLACEMENT = 1 << 20;
+
+	// Layout: magic, entries, words, buckets, seed, encipher[26], decipher[26],
+	// displacement[buckets], slotCode[entries], slotWord[entries],
+	// wordOffset[words + 1], word bytes (ISO-8859-1).
+	private final ByteBuffer data;
+	private final int entries;
+	private final int words;
+	private final int buckets;
+	private final int seed;
+	private final int displacementStart;
+	private final int slotCodeStart;
+	private final int slotWordStart;
+	private final int wordOffsetStart;
+	private final int wordBytesStart;
+
+	private Codebook(ByteBuffer data) {
+		this.data = data;
+		if (data.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Not a compiled code book");
+		}
+		entries = data.getInt(4);
+		words = data.getInt(8);
+		buckets = data.getInt(12);
+		seed = data.getInt(16);
+		displacementStart = HEADER_SIZE;
+		slotCodeStart = displacementStart + 4 * buckets;
+		slotWordStart = slotCodeStart + 4 * entries;
+		wordOffsetStart = slotWordStart + 4 * entries;
+		wordBytesStart = wordOffsetStart + 4 * (words + 1);
+	}
+
+	// This method maps a compiled code book file into memory.
+	public static Codebook load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new Codebook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	// This method wraps code book bytes that are already in memory.
+	public static Codebook wrap(byte[] bytes) {
+		return new Codebook(ByteBuffer.wrap(bytes));
+	}
+
+	// ------------------------------------------------------------------ lookup
+
+	// This method hashes a word (FNV-1a over its characters, then a final mix).
+	static int hash(String word, int seed) {
+		int h = 0x811C9DC5 ^ seed;
+		for (int i = 0; i < word.length(); i++) {
+			h = (h ^ word.charAt(i)) * 0x01000193;
+		}
+		return mix(h);
+	}
+
+	// This method hashes a word given as ISO-8859-1 bytes, matching hash(String, int).
+	static int hash(byte[] buffer, int off, int len, int seed) {
+		int h = 0x811C9DC5 ^ seed;
+		for (int i = off; i < off + len; i++) {
+			h = (h ^ (buffer[i] & 0xFF)) * 0x01000193;
+		}
+		return mix(h);
+	}
+
+	// This method is the murmur3 finalizer, used to spread hash bits.
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		return h ^ (h >>> 16);
+	}
+
+	private static int bucketOf(int hash, int buckets) {
+		return (hash & 0x7FFFFFFF) % buckets;
+	}
+
+	private static int slotOf(int hash, int displacement, int entries) {
+		return (mix(hash + displacement * 0x9E3779B9) & 0x7FFFFFFF) % entries;
+	}
+
+	// This method returns the code for word, or defaultCode if it is not in the book.
+	@Override
+	public int getOrDefault(String word, int defaultCode) {
+		if (entries == 0) {
+			return defaultCode;
+		}
+		int h = hash(word, seed);
+		int displacement = data.getInt(displacementStart + 4 * bucketOf(h, buckets));
+		int slot = slotOf(h, displacement, entries);
+		int wordIndex = data.getInt(slotWordStart + 4 * slot);
+		if (!wordEquals(wordIndex, word)) {
+			return defaultCode;
+		}
+		return data.getInt(slotCodeStart + 4 * slot);
+	}
+
+	// This method looks up a word given as ISO-8859-1 bytes.
+	@Override
+	public int getOrDefault(byte[] buffer, int off, int len, int defaultCode) {
+		if (entries == 0) {
+			return defaultCode;
+		}
+		int h = hash(buffer, off, len, seed);
+		int displacement = data.getInt(displacementStart + 4 * bucketOf(h, buckets));
+		int slot = slotOf(h, displacement, entries);
+		int wordIndex = data.getInt(slotWordStart + 4 * slot);
+		int start = data.getInt(wordOffsetStart + 4 * wordIndex);
+		int end = data.getInt(wordOffsetStart + 4 * (wordIndex + 1));
+		if (end - start != len) {
+			return defaultCode;
+		}
+		for (int i = 0; i < len; i++) {
+			if (data.get(wordBytesStart + start + i) != buffer[off + i]) {
+				return defaultCode;
+			}
+		}
+		return data.getInt(slotCodeStart + 4 * slot);
+	}
+
+	// This method compares a stored word with a String without decoding it.
+	private boolean wordEquals(int wordIndex, String word) {
+		int start = data.getInt(wordOffsetStart + 4 * wordIndex);
+		int end = data.getInt(wordOffsetStart + 4 * (wordIndex + 1));
+		if (end - start != word.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if ((data.get(wordBytesStart + start + i) & 0xFF) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// This method returns the word on line code of the code book (codes start at 1).
+	public String decode(int code) {
+		if (code < 1 || code > words) {
+			return null;
+		}
+		int start = data.getInt(wordOffsetStart + 4 * (code - 1));
+		int end = data.getInt(wordOffsetStart + 4 * code);
+		byte[] bytes = new byte[end - start];
+		data.get(wordBytesStart + start, bytes);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+
+	// This method returns the whole decoding table, indexed by code - 1.
+	public String[] decodeArray() {
+		String[] decode = new String[words];
+		for (int code = 1; code <= words; code++) {
+			decode[code - 1] = decode(code);
+		}
+		return decode;
+	}
+
+	// This method copies the cipher into the two 26-letter arrays Crypto uses.
+	public void copyCipher(char[] encipherArray, char[] decipherArray) {
+		for (int i = 0; i < 26; i++) {
+			encipherArray[i] = (char) (data.get(20 + i) & 0xFF);
+			decipherArray[i] = (char) (data.get(20 + 26 + i) & 0xFF);
+		}
+	}
+
+	// This method returns the number of distinct words with a code.
+	public int size() {
+		return entries;
+	}
+
+	// ------------------------------------------------------------------- build
+
+	// This method compiles the code book and cipher text files into a binary
+	// code book, in the format load() reads.
+	public static byte[] compile(List<String> wordList, List<Integer> codeList, char[] encipherArray,
+			char[] decipherArray) {
+		// Distinct words keep their last code, as HashTable.insert would.
+		Map<String, Integer> distinct = new LinkedHashMap<>();
+		Map<String, Integer> lineOf = new LinkedHashMap<>();
+		for (int i = 0; i < wordList.size(); i++) {
+			distinct.put(wordList.get(i), codeList.get(i));
+			lineOf.put(wordList.get(i), i);
+		}
+		String[] keys = distinct.keySet().toArray(new String[0]);
+		int entries = keys.length;
+		int buckets = Math.max(1, (entries + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+
+		int[] displacement = null;
+		int[] slotWord = null;
+		int seed = 0;
+		while (slotWord == null) {
+			seed++;
+			displacement = new int[buckets];
+			slotWord = placeKeys(keys, seed, buckets, displacement);
+		}
+
+		int[] slotCode = new int[entries];
+		int[] slotLine = new int[entries];
+		for (int slot = 0; slot < entries; slot++) {
+			String key = keys[slotWord[slot]];
+			slotCode[slot] = distinct.get(key);
+			slotLine[slot] = lineOf.get(key);
+		}
+
+		byte[][] wordBytes = new byte[wordList.size()][];
+		int totalBytes = 0;
+		for (int i = 0; i < wordBytes.length; i++) {
+			wordBytes[i] = wordList.get(i).getBytes(StandardCharsets.ISO_8859_1);
+			totalBytes += wordBytes[i].length;
+		}
+
+		ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 4 * (buckets + 2 * entries + wordBytes.length + 1)
+				+ totalBytes);
+		out.putInt(MAGIC).putInt(entries).putInt(wordBytes.length).putInt(buckets).putInt(seed);
+		for (int i = 0; i < 26; i++) {
+			out.put((byte) encipherArray[i]);
+		}
+		for (int i = 0; i < 26; i++) {
+			out.put((byte) decipherArray[i]);
+		}
+		for (int d : displacement) {
+			out.putInt(d);
+		}
+		for (int code : slotCode) {
+			out.putInt(code);
+		}
+		for (int line : slotLine) {
+			out.putInt(line);
+		}
+		int offset = 0;
+		for (byte[] word : wordBytes) {
+			out.putInt(offset);
+			offset += word.length;
+		}
+		out.putInt(offset);
+		for (byte[] word : wordBytes) {
+			out.put(word);
+		}
+		return out.array();
+	}
+
+	// This method finds a displacement for every bucket so that all keys land in
+	// distinct slots. It returns slot -> key index, or null if some bucket could
+	// not be placed with this seed.
+	private static int[] placeKeys(String[] keys, int seed, int buckets, int[] displacement) {
+		int entries = keys.length;
+		int[] hashes = new int[entries];
+		List<List<Integer>> members = new ArrayList<>();
+		for (int b = 0; b < buckets; b++) {
+			members.add(new ArrayList<>());
+		}
+		for (int k = 0; k < entries; k++) {
+			hashes[k] = hash(keys[k], seed);
+			members.get(bucketOf(hashes[k], buckets)).add(k);
+		}
+
+		Integer[] order = new Integer[buckets];
+		for (int b = 0; b < buckets; b++) {
+			order[b] = b;
+		}
+		Arrays.sort(order, (x, y) -> members.get(y).size() - members.get(x).size());
+
+		int[] slotKey = new int[entries];
+		Arrays.fill(slotKey, -1);
+		int[] tried = new int[KEYS_PER_BUCKET * 4];
+		for (int bucket : order) {
+			List<Integer> bucketKeys = members.get(bucket);
+			if (bucketKeys.isEmpty()) {
+				break;
+			}
+			if (tried.length < bucketKeys.size()) {
+				tried = new int[bucketKeys.size()];
+			}
+			boolean placed = false;
+			for (int d = 0; d < MAX_DISPLACEMENT && !placed; d++) {
+				placed = true;
+				for (int i = 0; i < bucketKeys.size(); i++) {
+					int slot = slotOf(hashes[bucketKeys.get(i)], d, entries);
+					boolean taken = slotKey[slot] != -1;
+					for (int j = 0; j < i && !taken; j++) {
+						taken = tried[j] == slot;
+					}
+					if (taken) {
+						placed = false;
+						break;
+					}
+					tried[i] = slot;
+				}
+				if (placed) {
+					displacement[bucket] = d;
+					for (int i = 0; i < bucketKeys.size(); i++) {
+						slotKey[tried[i]] = bucketKeys.get(i);
+					}
+				}
+			}
+			if (!placed) {
+				return null;
+			}
+		}
+		return slotKey;
+	}
+
+	// Build step: compile the text files into the binary code book.
+	public static void main(String[] args) throws IOException {
+		String codeFile = args.length > 0 ? args[0] : "WashingtonCode";
+		String cipherFile = args.length > 1 ? args[1] : "WashingtonCipher";
+		String outFile = args.length > 2 ? args[2] : "WashingtonCode.bin";
+
+		List<String> wordList = new ArrayList<>();
+		List<Integer> codeList = new ArrayList<>();
+		try (Scanner scanner = new Scanner(new File(codeFile))) {
+			while (scanner.hasNextLine()) {
+				// The code is the last token; everything before it is the word or phrase.
+				String line = scanner.nextLine().trim();
+				int lastSpace = line.lastIndexOf(' ');
+				if (lastSpace > 0) {
+					try {
+						// Parse first so a bad line adds neither the word nor the code
+						int code = Integer.parseInt(line.substring(lastSpace + 1));
+						wordList.add(line.substring(0, lastSpace).trim().replaceAll(" +", " "));
+						codeList.add(code);
+					} catch (NumberFormatException e) {
+						System.out.println("Error parsing integer from: " + line);
+					}
+				}
+			}
+		} catch (FileNotFoundException e) {
+			System.out.println("An error occurred while reading " + codeFile + ".");
+			return;
+		}
+
+		char[] encipherArray = new char[26];
+		char[] decipherArray = new char[26];
+		try (Scanner scanner = new Scanner(new File(cipherFile))) {
+			for (int i = 0; i < 26 && scanner.hasNextLine(); i++) {
+				String line = scanner.nextLine();
+				encipherArray[i] = line.charAt(0);
+				decipherArray[i] = line.charAt(2);
+			}
+		} catch (FileNotFoundException e) {
+			System.out.println("An error occurred while reading " + cipherFile + ".");
+			return;
+		}
+
+		byte[] compiled = compile(wordList, codeList, encipherArray, decipherArray);
+		try (FileChannel channel = FileChannel.open(Paths.get(outFile), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(compiled));
+		}
+		System.out.println("Compiled " + wordList.size() + " code book lines into " + outFile + " ("
+				+ compiled.length + " bytes).");
+	}
+
+}
@@ -0,0 +1,33 @@
+//Description: A running sum with Neumaier (improved Kahan) compensation. The
+// low-order bits lost by each addition are collected in a separate term and
+// added back at the end, so summing millions of samples loses far less
+// precision than accumulating into one double.
+//Date: 10/17/2026
+
+public final class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    // Method to add a value to the sum
+    public void add(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+
+    // Method to get the compensated total
+    public double value() {
+        return sum + compensation;
+    }
+
+    // Method to reset the sum to zero so the accumulator can be reused
+    public void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+}
@@ -0,0 +1,110 @@
+//Description: A function of x parsed once by mxparser and evaluated many times.
+// Building a new Expression and Argument for every sample point makes mxparser
+// re-parse the function text on every call; this class keeps one Expression
+// bound to one Argument and only updates the argument value per call. An
+// instance is not thread-safe because the argument value is shared state, so
+// use copy() to get an independent evaluator for another thread.
+//
+// With -Djit.integrands=true, functions the infix front end can read (integer
+// literals, x, + - * / and parentheses) are compiled to bytecode by
+// ExpressionJit when the function is created; anything else (powers,
+// functions, decimals) always goes through mxparser. This is opt-in because
+// the two do not round alike: mxparser rounds its results and the generated
+// code does not, so a compiled function can differ from mxparser in the last
+// bits. The evaluator is chosen once, before any sample is taken, so an
+// integration never mixes samples from both and parallel results do not
+// depend on the thread count.
+//Date: 10/17/2026
+
+import org.mariuszgromada.math.mxparser.Argument;
+import org.mariuszgromada.math.mxparser.Expression;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+public class CompiledFunction implements DoubleUnaryOperator, Function<Double, Double> {
+
+    private final String functionStr;
+    private final Argument x;
+    private final Expression expression;
+    // Generated code for the function, or null if only mxparser can read it
+    private final DoubleUnaryOperator compiled;
+
+    // Constructor parses the function string once, and compiles it if
+    // -Djit.integrands=true
+    public CompiledFunction(String functionStr) {
+        this(functionStr, ExpressionJit.INTEGRANDS);
+    }
+
+    // Constructor that compiles the function to bytecode when jit is set and
+    // the infix front end can read it
+    public CompiledFunction(String functionStr, boolean jit) {
+        this(functionStr, jit ? compile(functionStr) : null);
+    }
+
+    private CompiledFunction(String functionStr, DoubleUnaryOperator compiled) {
+        this.functionStr = functionStr;
+        this.x = new Argument("x", 0);
+        this.expression = new Expression(functionStr, x);
+        this.compiled = compiled;
+    }
+
+    // Method to compile a function the infix front end can read, or return null
+    private static DoubleUnaryOperator compile(String functionStr) {
+        if (!ExpressionJit.ENABLED) {
+            return null;
+        }
+        try {
+            return ExpressionJit.compileDouble(InfixCompiler.compile(functionStr, "x"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Method to evaluate the function at a point without re-parsing
+    @Override
+    public double applyAsDouble(double value) {
+        if (compiled != null) {
+            return compiled.applyAsDouble(value);
+        }
+        x.setArgumentValue(value);
+        return expression.calculate();
+    }
+
+    // Method to check whether the function is running as generated bytecode
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
+    // Method to evaluate the function for callers that still use Function<Double, Double>
+    @Override
+    public Double apply(Double value) {
+        return applyAsDouble(value);
+    }
+
+    // Method to check whether mxparser accepted the function string
+    public boolean isValid() {
+        return expression.checkSyntax();
+    }
+
+    // Method to get mxparser's description of a syntax error
+    public String errorMessage() {
+        return expression.getErrorMessage();
+    }
+
+    // Method to create an independent evaluator for the same function
+    public CompiledFunction copy() {
+        // Generated code has no state, so copies can share it
+        return new CompiledFunction(functionStr, compiled);
+    }
+
+    // Method to get the original function string
+    public String functionString() {
+        return functionStr;
+    }
+
+    @Override
+    public String toString() {
+        return "f(x) = " + functionStr;
+    }
+}
@@ -0,0 +1,134 @@
+//Description: This is a lock-free generic stack that can be shared between
+// threads. It is a Treiber stack: the head pointer is an AtomicReference that
+// is only changed with compare-and-set. When that CAS fails under contention, a
+// push and a pop can meet in a small elimination array and hand the item over
+// directly without touching the head at all.
+//Date: 10/17/2026
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentStack<T> {
+	private static final class Node<T> {
+		private final T item;
+		private Node<T> next;
+
+		public Node(T newItem) {
+			item = newItem;
+		}
+	} // End of Node inner class
+
+	// How many times a thread waits in an elimination slot for a partner.
+	private static final int ELIMINATION_SPINS = 64;
+
+	private final AtomicReference<Node<T>> head = new AtomicReference<>();
+	private final LongAdder size = new LongAdder();
+	// Each slot holds a node offered by a waiting push, or null.
+	private final AtomicReferenceArray<Node<T>> elimination;
+
+	// Create an empty stack.
+	public ConcurrentStack() {
+		elimination = new AtomicReferenceArray<>(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+	}
+
+	// This method pushes an item onto the stack.
+	public void push(T itemName) {
+		Node<T> newNode = new Node<>(itemName);
+		while (true) {
+			Node<T> oldHead = head.get();
+			newNode.next = oldHead;
+			if (head.compareAndSet(oldHead, newNode)) {
+				break;
+			}
+			// Contention on head: try to hand the node straight to a popper.
+			if (offerToPopper(newNode)) {
+				break;
+			}
+		}
+		size.increment();
+	}
+
+	// This method pops/removes the top item from the stack and returns the value
+	// of the popped item, or null if the stack is empty.
+	public T pop() {
+		while (true) {
+			Node<T> oldHead = head.get();
+			if (oldHead == null) {
+				return null;
+			}
+			if (head.compareAndSet(oldHead, oldHead.next)) {
+				size.decrement();
+				return oldHead.item;
+			}
+			// Contention on head: try to take a node a pusher is offering.
+			Node<T> offered = takeFromPusher();
+			if (offered != null) {
+				size.decrement();
+				return offered.item;
+			}
+		}
+	}
+
+	// This method parks node in a random elimination slot and waits briefly for
+	// a pop to take it. It returns true if a pop took the node.
+	private boolean offerToPopper(Node<T> node) {
+		int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+		if (!elimination.compareAndSet(slot, null, node)) {
+			return false;
+		}
+		for (int i = 0; i < ELIMINATION_SPINS; i++) {
+			if (elimination.get(slot) != node) {
+				return true;
+			}
+			Thread.onSpinWait();
+		}
+		// Withdraw the offer. If that fails, a pop took the node in the meantime.
+		return !elimination.compareAndSet(slot, node, null);
+	}
+
+	// This method takes a node offered in a random elimination slot, or returns
+	// null if there is none.
+	private Node<T> takeFromPusher() {
+		int slot = ThreadLocalRandom.current().nextInt(elimination.length());
+		Node<T> offered = elimination.get(slot);
+		if (offered != null && elimination.compareAndSet(slot, offered, null)) {
+			return offered;
+		}
+		return null;
+	}
+
+	// This method returns the "top" item on the stack without popping it.
+	public T top() {
+		Node<T> current = head.get();
+		if (current == null) {
+			return null;
+		}
+		return current.item;
+	}
+
+	// This method returns the number of elements in the stack. It is relaxed:
+	// while other threads are pushing or popping the value may be slightly stale.
+	public int size() {
+		long count = size.sum();
+		return (int) Math.max(0, Math.min(Integer.MAX_VALUE, count));
+	}
+
+	// This method check if the stack has no elements or is empty.
+	public boolean isEmpty() {
+		return head.get() == null;
+	}
+
+	// This method makes the stack empty.
+	public void makeEmpty() {
+		Node<T> removed = head.getAndSet(null);
+		// Subtract exactly the nodes that were detached so concurrent pushes stay counted.
+		long count = 0;
+		for (Node<T> node = removed; node != null; node = node.next) {
+			count++;
+		}
+		size.add(-count);
+	}
+
+}
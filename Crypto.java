@@ -10,20 +10,47 @@
  */
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class Crypto {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         char[] encipherArray = new char[26];
         char[] decipherArray = new char[26];
 
-        initializeWashingtonCipher(encipherArray, decipherArray);
+        CodeLookup table;
+        String[] decode;
 
-        HashTable table = new HashTable();
-        String[] decode = new String[763];
+        // Prefer the compiled code book (built with "java Codebook"); fall back to
+        // parsing the text files when it has not been built
+        Codebook codebook = loadCompiledCodebook();
+        if (codebook != null) {
+            table = codebook;
+            decode = codebook.decodeArray();
+            codebook.copyCipher(encipherArray, decipherArray);
+        } else {
+            initializeWashingtonCipher(encipherArray, decipherArray);
 
-        initializeWashingtonCode(table, decode);
+            HashTable hashTable = new HashTable();
+            decode = new String[763];
+
+            initializeWashingtonCode(hashTable, decode);
+            table = hashTable;
+        }
+
+        SubstitutionCipher cipher = new SubstitutionCipher(decipherArray);
+        // Phrases of several words are matched through a trie over the code book
+        PhraseTrie phrases = PhraseTrie.build(decode, table);
+
+        // Stream whole files through the cipher instead of prompting
+        if (args.length > 0 && (args[0].equals("--encrypt") || args[0].equals("--decrypt"))) {
+            CryptoStream.run(args, phrases, cipher, decode);
+            return;
+        }
 
         Scanner scanner = new Scanner(System.in);
 
@@ -32,7 +59,7 @@ public class Crypto {
         System.out.println("Welcome to the crypto Program!");
 
         do {
-            processUserInput(encipherArray, decipherArray, table, scanner, decode);
+            processUserInput(cipher, phrases, scanner, decode);
             boolean isValid;
             do {
                 printSeparator("*", 50);
@@ -60,7 +87,7 @@ public class Crypto {
     }
 
     // Process user input for encryption or decryption
-    private static void processUserInput(char[] encipherArray, char[] decipherArray, HashTable table, Scanner scanner, String[] decode) {
+    private static void processUserInput(SubstitutionCipher cipher, PhraseTrie phrases, Scanner scanner, String[] decode) {
         
        // Flag to control the input loop
         boolean isValid = false;
@@ -85,7 +112,7 @@ public class Crypto {
                         // Encrypt the user-entered message
                         System.out.println("Enter the message you would like to encrypt: ");
                         String message = scanner.nextLine();
-                        String result = encryptMessage(message, table, encipherArray, decipherArray);
+                        String result = encryptMessage(message, phrases, cipher);
                         printSeparator("*", 50);
                         System.out.println("Here is your encrypted message:\n" + result);
                         isValid = true;
@@ -93,7 +120,7 @@ public class Crypto {
                     case 2:
                         // Decrypt the user-entered message
                         System.out.println("Enter the message you would like to decrypt: ");
-                        String decryptedMessage = decryptMessage(scanner.nextLine(), table, encipherArray, decipherArray, decode);
+                        String decryptedMessage = decryptMessage(scanner.nextLine(), phrases, cipher, decode);
                         printSeparator("*", 50);
                         System.out.println("Here is your decrypted message:\n" + decryptedMessage);
                         isValid = true;
@@ -111,7 +138,9 @@ public class Crypto {
     }
 
     // Decrypt the user-entered message
-    private static String decryptMessage(String message, HashTable table, char[] encipherArray, char[] decipherArray, String[] decode) {
+    static String decryptMessage(String message, CodeLookup table, SubstitutionCipher cipher, String[] decode) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int hits = 0;
         message = message.toUpperCase();
         String[] words = message.split(" ");
 
@@ -122,37 +151,23 @@ public class Crypto {
                 // If the word contains only digits, use decoding array
                 if (Integer.parseInt(words[i]) <= decode.length) {
                     modifiedWords[i] = decode[Integer.parseInt(words[i]) - 1];
+                    hits++;
                 } else {
                     // Handle words not in the decoding array
                     modifiedWords[i] = "UNKNOWN";
                 }
             } else {
-                // If the word contains characters, perform decryption using decipher array
+                // If the word contains characters, perform decryption using the inverse cipher table
                 char[] characters = words[i].toCharArray();
-                for (int j = 0; j < characters.length; j++) {
-                    char originalChar = characters[j];
-                    if (originalChar >= 'A' && originalChar <= 'Z') {
-                        int index = indexOf(decipherArray, originalChar);
-                        if (index != -1) {
-                            characters[j] = (char) ('A' + index);
-                        }
-                    }
-                }
+                cipher.decipher(characters, 0, characters.length);
                 modifiedWords[i] = String.valueOf(characters);
             }
         }
 
-        return String.join(" ", modifiedWords);
-    }
-
-    // Helper method to find the index of a character in an array
-    private static int indexOf(char[] array, char target) {
-        for (int i = 0; i < array.length; i++) {
-            if (array[i] == target) {
-                return i;
-            }
+        if (Metrics.ENABLED) {
+            Metrics.recordCrypto(false, hits, words.length - hits, System.nanoTime() - start);
         }
-        return -1;
+        return String.join(" ", modifiedWords);
     }
 
     // Check if a word contains only digits
@@ -166,30 +181,50 @@ public class Crypto {
     }
 
     // Encrypt the user-entered message
-    private static String encryptMessage(String message, HashTable table, char[] encipherArray, char[] decipherArray) {
+    static String encryptMessage(String message, PhraseTrie phrases, SubstitutionCipher cipher) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        int hits = 0;
+        int fallbacks = 0;
         message = message.replaceAll("\\p{Punct}", "");
         message = message.toUpperCase();
 
         String[] words = message.split(" ");
-        String[] modifiedWords = new String[words.length];
+        StringBuilder result = new StringBuilder(message.length());
+
+        int i = 0;
+        while (i < words.length) {
+            // Walk the trie word by word and keep the longest phrase with a code
+            int node = phrases.walk(PhraseTrie.ROOT, words[i]);
+            int code = phrases.code(node);
+            int matched = code != -1 ? 1 : 0;
+            for (int j = i + 1; j < words.length && phrases.continues(node); j++) {
+                node = phrases.walk(phrases.step(node, ' '), words[j]);
+                if (phrases.code(node) != -1) {
+                    code = phrases.code(node);
+                    matched = j - i + 1;
+                }
+            }
 
-        for (int i = 0; i < words.length; i++) {
-            if (table.access(words[i])) {
-                modifiedWords[i] = String.valueOf(table.accessCode(words[i]));
+            if (i > 0) {
+                result.append(' ');
+            }
+            if (matched > 0) {
+                result.append(code);
+                i += matched;
+                hits++;
             } else {
                 char[] characters = words[i].toCharArray();
-                for (int j = 0; j < characters.length; j++) {
-                    char originalChar = characters[j];
-                    if (originalChar >= 'A' && originalChar <= 'Z') {
-                        int index = originalChar - 'A';
-                        characters[j] = decipherArray[index];
-                    }
-                }
-                modifiedWords[i] = String.valueOf(characters);
+                cipher.encipher(characters, 0, characters.length);
+                result.append(characters);
+                i++;
+                fallbacks++;
             }
         }
 
-        return String.join(" ", modifiedWords);
+        if (Metrics.ENABLED) {
+            Metrics.recordCrypto(true, hits, fallbacks, System.nanoTime() - start);
+        }
+        return result.toString();
     }    
 
     private static void initializeWashingtonCode(HashTable table, String[] decode) {
@@ -201,16 +236,18 @@ public class Crypto {
     
             // Process each line in the file
             while (fileScanner.hasNextLine()) {
-                String line = fileScanner.nextLine();
-                String[] parts = line.split(" ");
+                String line = fileScanner.nextLine().trim();
+                // The code is the last token; everything before it is the word or phrase
+                int lastSpace = line.lastIndexOf(' ');
     
                 // Check if there are at least two parts in the line
-                if (parts.length >= 2) {
+                if (lastSpace > 0) {
                     try {
+                        String phrase = line.substring(0, lastSpace).trim().replaceAll(" +", " ");
                         // Insert into hash table
-                        table.insert(parts[0], Integer.parseInt(parts[1]));
+                        table.insert(phrase, Integer.parseInt(line.substring(lastSpace + 1)));
                         // Populate decoding array
-                        decode[index] = parts[0];
+                        decode[index] = phrase;
                         index++;
                     } catch (NumberFormatException e) {
                         // Handle parsing error
@@ -230,6 +267,20 @@ public class Crypto {
         }
     }        
 
+    // Load the compiled code book, or return null if it has not been built
+    private static Codebook loadCompiledCodebook() {
+        Path compiled = Paths.get("WashingtonCode.bin");
+        if (!Files.isReadable(compiled)) {
+            return null;
+        }
+        try {
+            return Codebook.load(compiled);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Could not load " + compiled + ", reading the text files instead.");
+            return null;
+        }
+    }
+
     // Initialize the encipher and decipher arrays from the WashingtonCipher.txt file
     private static void initializeWashingtonCipher(char[] encipherArray, char[] decipherArray) {
         int index = 0;
@@ -0,0 +1,174 @@
+//Description: Encrypts or decrypts large inputs on all cores. Every word is
+// transformed on its own, so the input is cut into chunks of about 4 MB that
+// end on a word separator, the chunks are transformed on a work-stealing
+// fork-join pool (each worker with its own CryptoStream scratch space), and the
+// output chunks are written back in input order. At most a fixed window of
+// chunks is in flight, and chunk buffers are recycled, so memory use stays
+// bounded however large the input is. Chunks end on a line break where there
+// is one, so code book phrases (whose words are joined by single spaces) are
+// never cut in two. A line longer than a chunk is cut straight after a word
+// with some output, so the spaces after it, which CryptoStream holds back until
+// the next word, start the next chunk instead of being dropped as if they
+// ended the line; and only where the word after the cut is not a later word of
+// any phrase, so no phrase match can run across the cut either.
+//Date: 10/17/2026
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class CryptoPipeline {
+	private static final int CHUNK_SIZE = 1 << 22;
+	// Chunks in flight per worker; enough to keep workers busy while the
+	// writer waits on the oldest chunk.
+	private static final int WINDOW_PER_THREAD = 2;
+
+	private final ForkJoinPool pool;
+	private final ThreadLocal<CryptoStream> streams;
+	private final boolean encrypt;
+	// Cleans the words around a cut; used on the reading thread only.
+	private final CryptoStream cutter;
+	private final int window;
+	private final ConcurrentLinkedQueue<byte[]> freeInputs = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<CryptoStream.Output> freeOutputs = new ConcurrentLinkedQueue<>();
+
+	// Create a pipeline that uses parallelism worker threads, or one per
+	// available processor when parallelism is 0 or less.
+	public CryptoPipeline(PhraseTrie phrases, SubstitutionCipher cipher, String[] decode, boolean encrypt,
+			int parallelism) {
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		pool = new ForkJoinPool(parallelism);
+		this.encrypt = encrypt;
+		cutter = new CryptoStream(phrases, cipher, decode, encrypt);
+		window = parallelism * WINDOW_PER_THREAD;
+		// The phrase trie and cipher are read-only and shared; only the word
+		// scratch space in CryptoStream is per thread.
+		streams = ThreadLocal.withInitial(() -> new CryptoStream(phrases, cipher, decode, encrypt));
+	}
+
+	// This method transforms everything read from in and writes it to out in
+	// input order. It returns the number of input bytes.
+	public long transform(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ArrayDeque<ForkJoinTask<CryptoStream.Output>> inFlight = new ArrayDeque<>();
+		byte[] buffer = takeInput();
+		int filled = 0;
+		long total = 0;
+		boolean endOfInput = false;
+
+		while (!endOfInput) {
+			// Fill the chunk completely unless the input ends first.
+			ByteBuffer target = ByteBuffer.wrap(buffer, filled, buffer.length - filled);
+			while (target.hasRemaining()) {
+				int read = in.read(target);
+				if (read < 0) {
+					endOfInput = true;
+					break;
+				}
+				total += read;
+			}
+			filled = target.position();
+
+			// Cut after the last line break, or failing that the last word; the rest
+			// moves to the next chunk.
+			int cut = filled;
+			if (!endOfInput) {
+				cut = lastCut(buffer, filled);
+			}
+			byte[] next = takeInput();
+			System.arraycopy(buffer, cut, next, 0, filled - cut);
+
+			if (inFlight.size() >= window) {
+				write(inFlight.poll(), out);
+			}
+			inFlight.add(submit(buffer, cut));
+			buffer = next;
+			filled -= cut;
+		}
+
+		while (!inFlight.isEmpty()) {
+			write(inFlight.poll(), out);
+		}
+		freeInputs.add(buffer);
+		return total;
+	}
+
+	// This method stops the worker threads once submitted work has finished.
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	// This method starts transforming the first length bytes of chunk. The chunk
+	// buffer goes back to the pool as soon as it has been read.
+	private ForkJoinTask<CryptoStream.Output> submit(byte[] chunk, int length) {
+		return pool.submit(() -> {
+			CryptoStream.Output output = freeOutputs.poll();
+			if (output == null) {
+				output = new CryptoStream.Output(CHUNK_SIZE + CHUNK_SIZE / 2);
+			}
+			streams.get().transform(chunk, 0, length, true, output);
+			freeInputs.add(chunk);
+			return output;
+		});
+	}
+
+	// This method waits for a chunk, writes its output and recycles the buffer.
+	private void write(ForkJoinTask<CryptoStream.Output> task, WritableByteChannel out) throws IOException {
+		CryptoStream.Output output = task.join();
+		output.writeTo(out);
+		freeOutputs.add(output);
+	}
+
+	// This method returns where to end a chunk of filled bytes: after the last
+	// line break, or failing that at the end of the last complete word with
+	// some output that no phrase match can run on from.
+	private int lastCut(byte[] buffer, int filled) {
+		for (int i = filled; i > 0; i--) {
+			if (buffer[i - 1] == '\n') {
+				return i;
+			}
+		}
+		// The last word may continue in the next read, so nothing is known about it.
+		int i = filled;
+		while (i > 0 && !CryptoStream.isSeparator(buffer[i - 1])) {
+			i--;
+		}
+		boolean nextKnown = false;
+		int nextEnd = filled;
+		while (i > 0) {
+			int separatorsEnd = i;
+			while (i > 0 && CryptoStream.isSeparator(buffer[i - 1])) {
+				i--;
+			}
+			int wordEnd = i;
+			while (i > 0 && !CryptoStream.isSeparator(buffer[i - 1])) {
+				i--;
+			}
+			if (i == wordEnd) {
+				break;
+			}
+			// A phrase only runs on across exactly one space into a later word.
+			boolean phraseMayCross = encrypt && separatorsEnd - wordEnd == 1 && buffer[wordEnd] == ' '
+					&& (!nextKnown || cutter.mayContinuePhrase(buffer, separatorsEnd, nextEnd - separatorsEnd));
+			if (!phraseMayCross && CryptoStream.hasOutput(buffer, i, wordEnd - i, encrypt)) {
+				return wordEnd;
+			}
+			nextKnown = true;
+			nextEnd = wordEnd;
+		}
+		// Without such a word a single word fills the whole chunk; transform it as it stands.
+		return filled;
+	}
+
+	private byte[] takeInput() {
+		byte[] buffer = freeInputs.poll();
+		return buffer != null ? buffer : new byte[CHUNK_SIZE];
+	}
+
+}
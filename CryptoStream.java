@@ -0,0 +1,396 @@
+//Description: Streaming encryption and decryption for large text files. Input
+// is read from a channel into one reusable byte buffer, words are found and
+// cleaned in place (punctuation dropped, letters upper-cased into a small
+// scratch array), looked up in the code book straight from the bytes, and the
+// result is appended to a reusable output buffer that is written to the output
+// channel whenever it fills. No String or String[] is built per word or per
+// line, and memory use stays the same whatever the size of the input.
+//
+// Usage: java Crypto --encrypt|--decrypt [input|-] [output|-] [--parallel N]
+//
+// With --parallel the input is transformed on N threads (0 for all cores) by
+// CryptoPipeline.
+//
+// Words are separated by spaces and line breaks ('\n' and '\r'), which are
+// copied to the output unchanged, except that spaces after the last word of a
+// line are dropped. encryptMessage and decryptMessage split a line on spaces
+// alone with String.split, which drops trailing empty strings, so each output
+// line is exactly what they give for that line; like them, a tab or any other
+// character is part of the word it is in. Spaces are therefore held
+// back until a word with some output follows them on the same line; a word of
+// punctuation alone encrypts to nothing and does not release them. Text is
+// treated as ISO-8859-1, one character per byte.
+// Code book phrases are matched across words separated by a single space; if
+// a phrase could continue past the end of what has been read, the words are
+// left for the next read so the longest match is still found.
+//Date: 10/17/2026
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public final class CryptoStream {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final byte[] UNKNOWN = "UNKNOWN".getBytes(StandardCharsets.ISO_8859_1);
+	// ASCII punctuation, the characters \p{Punct} removes in encryptMessage.
+	private static final boolean[] PUNCTUATION = new boolean[256];
+	static {
+		for (char c : "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~".toCharArray()) {
+			PUNCTUATION[c] = true;
+		}
+	}
+
+	// A growable byte buffer that is cleared and reused rather than reallocated.
+	static final class Output {
+		byte[] bytes;
+		int length;
+
+		Output(int capacity) {
+			bytes = new byte[capacity];
+		}
+
+		private void ensure(int extra) {
+			if (length + extra > bytes.length) {
+				byte[] larger = new byte[Math.max(bytes.length * 2, length + extra)];
+				System.arraycopy(bytes, 0, larger, 0, length);
+				bytes = larger;
+			}
+		}
+
+		void put(byte b) {
+			ensure(1);
+			bytes[length++] = b;
+		}
+
+		void put(byte[] source, int off, int len) {
+			ensure(len);
+			System.arraycopy(source, off, bytes, length, len);
+			length += len;
+		}
+
+		// Appends a non-negative int in decimal without going through a String.
+		void putDecimal(int value) {
+			int digits = 1;
+			for (int v = value; v >= 10; v /= 10) {
+				digits++;
+			}
+			ensure(digits);
+			for (int i = length + digits - 1; i >= length; i--) {
+				bytes[i] = (byte) ('0' + value % 10);
+				value /= 10;
+			}
+			length += digits;
+		}
+
+		void clear() {
+			length = 0;
+		}
+
+		// Writes the whole buffer to channel and clears it.
+		void writeTo(WritableByteChannel channel) throws IOException {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			clear();
+		}
+	}
+
+	private final PhraseTrie phrases;
+	private final SubstitutionCipher cipher;
+	private final byte[][] decode;
+	private final boolean encrypt;
+	// Scratch space for the cleaned, upper-cased current word.
+	private byte[] word = new byte[64];
+	// Words found in the code book and words sent through the letter cipher,
+	// reported to Metrics once per transformed range.
+	private long hits;
+	private long fallbacks;
+	// Spaces read but not yet written, because no word has followed them yet.
+	private int pendingSpaces;
+
+	// Create a stream transformer that encrypts, or decrypts when encrypt is false.
+	public CryptoStream(PhraseTrie phrases, SubstitutionCipher cipher, String[] decode, boolean encrypt) {
+		this.phrases = phrases;
+		this.cipher = cipher;
+		this.encrypt = encrypt;
+		this.decode = new byte[decode.length][];
+		for (int i = 0; i < decode.length; i++) {
+			if (decode[i] != null) {
+				this.decode[i] = decode[i].getBytes(StandardCharsets.ISO_8859_1);
+			}
+		}
+	}
+
+	// Entry point used by Crypto for "--encrypt" and "--decrypt".
+	public static void run(String[] args, PhraseTrie phrases, SubstitutionCipher cipher, String[] decode)
+			throws IOException {
+		boolean encrypt = args[0].equals("--encrypt");
+		String input = "-";
+		String output = "-";
+		int parallelism = -1;
+		int positional = 0;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--parallel") && i + 1 < args.length) {
+				parallelism = Integer.parseInt(args[++i]);
+			} else if (positional++ == 0) {
+				input = args[i];
+			} else {
+				output = args[i];
+			}
+		}
+
+		try (ReadableByteChannel in = input.equals("-")
+				? Channels.newChannel(System.in)
+				: FileChannel.open(Paths.get(input), StandardOpenOption.READ);
+				WritableByteChannel out = output.equals("-")
+						? Channels.newChannel(System.out)
+						: FileChannel.open(Paths.get(output), StandardOpenOption.CREATE,
+								StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long start = System.nanoTime();
+			long bytes;
+			if (parallelism < 0) {
+				bytes = new CryptoStream(phrases, cipher, decode, encrypt).transform(in, out);
+			} else {
+				CryptoPipeline pipeline = new CryptoPipeline(phrases, cipher, decode, encrypt, parallelism);
+				try {
+					bytes = pipeline.transform(in, out);
+				} finally {
+					pipeline.shutdown();
+				}
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.err.printf("%s %d bytes in %.3f s (%.1f MB/s)%n", encrypt ? "Encrypted" : "Decrypted",
+					bytes, seconds, bytes / 1e6 / seconds);
+		}
+	}
+
+	// This method transforms everything read from in and writes it to out. It
+	// returns the number of input bytes.
+	public long transform(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		ByteBuffer inBuffer = ByteBuffer.wrap(buffer);
+		Output output = new Output(BUFFER_SIZE * 2);
+		long total = 0;
+		boolean endOfInput = false;
+
+		while (!endOfInput) {
+			int read = in.read(inBuffer);
+			if (read < 0) {
+				endOfInput = true;
+			} else {
+				total += read;
+			}
+
+			int filled = inBuffer.position();
+			int consumed = transform(buffer, 0, filled, endOfInput, output);
+			if (consumed == 0 && filled == buffer.length) {
+				// A single word fills the whole buffer; process it as it stands.
+				consumed = transform(buffer, 0, filled, true, output);
+			}
+			// Keep the unfinished word at the front of the buffer for the next read.
+			System.arraycopy(buffer, consumed, buffer, 0, filled - consumed);
+			inBuffer.position(filled - consumed);
+
+			if (output.length >= BUFFER_SIZE || endOfInput) {
+				output.writeTo(out);
+			}
+		}
+		return total;
+	}
+
+	// This method transforms the words in len bytes of src starting at off and
+	// appends the result to out. Unless endOfInput is set, a word that runs to
+	// the end of the range may continue in the next read, so it is left alone.
+	// It returns how many bytes were consumed. Spaces still held back when
+	// endOfInput is set end the last line and are dropped.
+	int transform(byte[] src, int off, int len, boolean endOfInput, Output out) {
+		int consumed;
+		if (!Metrics.ENABLED) {
+			consumed = transformWords(src, off, len, endOfInput, out);
+		} else {
+			long start = System.nanoTime();
+			consumed = transformWords(src, off, len, endOfInput, out);
+			Metrics.recordCrypto(encrypt, hits, fallbacks, System.nanoTime() - start);
+			hits = 0;
+			fallbacks = 0;
+		}
+		if (endOfInput) {
+			pendingSpaces = 0;
+		}
+		return consumed;
+	}
+
+	private int transformWords(byte[] src, int off, int len, boolean endOfInput, Output out) {
+		int i = off;
+		int end = off + len;
+		while (i < end) {
+			if (isSeparator(src[i])) {
+				if (src[i] == ' ') {
+					pendingSpaces++;
+				} else {
+					// Spaces at the end of a line are dropped.
+					pendingSpaces = 0;
+					out.put(src[i]);
+				}
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < end && !isSeparator(src[i])) {
+				i++;
+			}
+			if (i == end && !endOfInput) {
+				return start - off;
+			}
+			if (encrypt) {
+				int phraseEnd = encryptPhrase(src, start, i, end, endOfInput, out);
+				if (phraseEnd < 0) {
+					return start - off;
+				}
+				i = phraseEnd;
+			} else {
+				decryptWord(src, start, i - start, out);
+			}
+		}
+		return len;
+	}
+
+	static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\n' || b == '\r';
+	}
+
+	// This method checks whether a code book phrase could run on from the words
+	// before into the word in src[off, off + len), once cleaned for encryption.
+	boolean mayContinuePhrase(byte[] src, int off, int len) {
+		return phrases.isLaterWord(word, 0, cleanWord(src, off, len, true));
+	}
+
+	// This method returns whether the word in src[off, off + len) has any output:
+	// when encrypting, a word of punctuation alone is dropped entirely.
+	static boolean hasOutput(byte[] src, int off, int len, boolean encrypt) {
+		if (!encrypt) {
+			return len > 0;
+		}
+		for (int i = off; i < off + len; i++) {
+			if (!PUNCTUATION[src[i] & 0xFF]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// This method writes the spaces held back since the last word.
+	private void flushSpaces(Output out) {
+		for (; pendingSpaces > 0; pendingSpaces--) {
+			out.put((byte) ' ');
+		}
+	}
+
+	// This method encrypts the longest code book phrase starting with the word in
+	// src[start, wordEnd), or that word alone through the letter cipher if no
+	// phrase matches. It returns where the encrypted text ends in src, or -1 if
+	// a phrase might continue past end and more input is needed to decide.
+	private int encryptPhrase(byte[] src, int start, int wordEnd, int end, boolean endOfInput, Output out) {
+		int node = phrases.walk(PhraseTrie.ROOT, word, 0, cleanWord(src, start, wordEnd - start, true));
+		int code = phrases.code(node);
+		int matchEnd = code != -1 ? wordEnd : -1;
+
+		// Phrase words are separated by exactly one space.
+		int pos = wordEnd;
+		while (phrases.continues(node) && pos < end && src[pos] == ' ') {
+			int next = pos + 1;
+			pos = next;
+			while (pos < end && !isSeparator(src[pos])) {
+				pos++;
+			}
+			if (pos == end && !endOfInput) {
+				return -1;
+			}
+			node = phrases.walk(phrases.step(node, ' '), word, 0, cleanWord(src, next, pos - next, true));
+			if (phrases.code(node) != -1) {
+				code = phrases.code(node);
+				matchEnd = pos;
+			}
+		}
+
+		if (matchEnd >= 0) {
+			flushSpaces(out);
+			out.putDecimal(code);
+			hits++;
+			return matchEnd;
+		}
+		int length = cleanWord(src, start, wordEnd - start, true);
+		if (length > 0) {
+			flushSpaces(out);
+		}
+		cipher.encipher(word, 0, length);
+		out.put(word, 0, length);
+		fallbacks++;
+		return wordEnd;
+	}
+
+	// This method decrypts one word: a number becomes its code book word, anything
+	// else goes through the inverse letter cipher.
+	private void decryptWord(byte[] src, int off, int len, Output out) {
+		flushSpaces(out);
+		int length = cleanWord(src, off, len, false);
+		int code = parseCode(word, length);
+		if (code == -1) {
+			cipher.decipher(word, 0, length);
+			out.put(word, 0, length);
+			fallbacks++;
+		} else if (code >= 1 && code <= decode.length && decode[code - 1] != null) {
+			out.put(decode[code - 1], 0, decode[code - 1].length);
+			hits++;
+		} else {
+			// Handle words not in the decoding array
+			out.put(UNKNOWN, 0, UNKNOWN.length);
+			fallbacks++;
+		}
+	}
+
+	// This method copies a word into the scratch array, upper-casing ASCII letters
+	// and, when encrypting, dropping punctuation. It returns the cleaned length.
+	private int cleanWord(byte[] src, int off, int len, boolean dropPunctuation) {
+		if (word.length < len) {
+			word = new byte[Math.max(len, word.length * 2)];
+		}
+		int length = 0;
+		for (int i = off; i < off + len; i++) {
+			int c = src[i] & 0xFF;
+			if (dropPunctuation && PUNCTUATION[c]) {
+				continue;
+			}
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			word[length++] = (byte) c;
+		}
+		return length;
+	}
+
+	// This method returns the value of an all-digit word, Integer.MAX_VALUE if it
+	// is all digits but too large, or -1 if it is not a number.
+	private static int parseCode(byte[] word, int length) {
+		if (length == 0) {
+			return -1;
+		}
+		long value = 0;
+		for (int i = 0; i < length; i++) {
+			int digit = word[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = Math.min(Integer.MAX_VALUE, value * 10 + digit);
+		}
+		return (int) value;
+	}
+
+}
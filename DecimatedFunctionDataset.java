@@ -0,0 +1,162 @@
+//Description: A JFreeChart dataset that plots a function by sampling it on
+// demand instead of holding every point. The visible x range is divided into
+// one bucket per pixel column and each bucket contributes only its minimum and
+// maximum sample, so the number of points is capped by the chart width no
+// matter how large the integration n is. The dataset listens to the domain
+// axis and resamples lazily, on the next repaint after a zoom or pan.
+//Date: 10/17/2026
+
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.data.DomainOrder;
+import org.jfree.data.Range;
+import org.jfree.data.xy.AbstractXYDataset;
+
+import java.util.function.DoubleUnaryOperator;
+
+public class DecimatedFunctionDataset extends AbstractXYDataset implements AxisChangeListener {
+
+    private static final long serialVersionUID = 1L;
+
+    // Samples taken inside each bucket to find its minimum and maximum
+    private static final int SAMPLES_PER_BUCKET = 4;
+
+    private final String seriesKey;
+    private final DoubleUnaryOperator f;
+    private final int buckets;
+
+    // The x range currently requested, and the range the arrays were sampled for
+    private double lower;
+    private double upper;
+    private boolean stale = true;
+
+    private final double[] xs;
+    private final double[] ys;
+    private int count;
+
+    // Constructor for a plot of f over [a, b] that is at most buckets pixels wide
+    public DecimatedFunctionDataset(String seriesKey, DoubleUnaryOperator f, double a, double b, int buckets) {
+        this.seriesKey = seriesKey;
+        this.f = f;
+        this.buckets = buckets;
+        this.lower = a;
+        this.upper = b;
+        this.xs = new double[2 * buckets];
+        this.ys = new double[2 * buckets];
+    }
+
+    // Method to resample when the domain axis is zoomed or panned
+    @Override
+    public void axisChanged(AxisChangeEvent event) {
+        if (!(event.getAxis() instanceof ValueAxis)) {
+            return;
+        }
+        Range range = ((ValueAxis) event.getAxis()).getRange();
+        if (range.getLowerBound() != lower || range.getUpperBound() != upper) {
+            lower = range.getLowerBound();
+            upper = range.getUpperBound();
+            stale = true;
+            // One notification so the range axis can rescale; sampling waits for the repaint
+            fireDatasetChanged();
+        }
+    }
+
+    // Method to sample f over [lower, upper], keeping the min and max of each bucket in x order
+    private void resample() {
+        stale = false;
+        count = 0;
+        double width = (upper - lower) / buckets;
+        double step = width / (SAMPLES_PER_BUCKET - 1);
+
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            double start = lower + bucket * width;
+            double minX = Double.NaN;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NaN;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < SAMPLES_PER_BUCKET; i++) {
+                double x = start + i * step;
+                double y = f.applyAsDouble(x);
+                if (Double.isNaN(y)) {
+                    continue;
+                }
+                if (y < minY) {
+                    minY = y;
+                    minX = x;
+                }
+                if (y > maxY) {
+                    maxY = y;
+                    maxX = x;
+                }
+            }
+            if (Double.isNaN(minX)) {
+                continue; // f is undefined across the whole bucket
+            }
+            if (minX == maxX) {
+                add(minX, minY);
+            } else if (minX < maxX) {
+                add(minX, minY);
+                add(maxX, maxY);
+            } else {
+                add(maxX, maxY);
+                add(minX, minY);
+            }
+        }
+    }
+
+    private void add(double x, double y) {
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    private void ensureSampled() {
+        if (stale) {
+            resample();
+        }
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return 1;
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int series) {
+        return seriesKey;
+    }
+
+    @Override
+    public DomainOrder getDomainOrder() {
+        return DomainOrder.ASCENDING;
+    }
+
+    @Override
+    public int getItemCount(int series) {
+        ensureSampled();
+        return count;
+    }
+
+    @Override
+    public double getXValue(int series, int item) {
+        ensureSampled();
+        return xs[item];
+    }
+
+    @Override
+    public double getYValue(int series, int item) {
+        ensureSampled();
+        return ys[item];
+    }
+
+    @Override
+    public Number getX(int series, int item) {
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item) {
+        return getYValue(series, item);
+    }
+}
@@ -0,0 +1,354 @@
+//Description: Compiles hot expressions to JVM bytecode. A compiled RpnProgram
+// is translated opcode by opcode into one method of a small class, written
+// directly in class file format and loaded with Lookup.defineHiddenClass, so
+// HotSpot can inline and optimize it like ordinary Java code instead of
+// running the interpreter's dispatch loop on every call.
+//
+// Two shapes are generated:
+//  - LongCode: exact long arithmetic for the calculator. Every operator calls
+//    one of the public static helpers below, which throw ArithmeticException
+//    on overflow, division by zero or a forbidden negative operand; the caller
+//    then reruns the interpreter, which reports the error or promotes the
+//    value to BigInteger, so results never differ from the interpreter's.
+//  - DoubleUnaryOperator: an integrand f(x) for calcproject, using the JVM's
+//    double instructions (division by zero gives NaN, as mxparser does).
+//
+// Calculator programs are compiled once they have been evaluated THRESHOLD
+// times; since they fall back to the interpreter on any error, results are
+// the same either way. Integrands are only compiled when asked for with
+// -Djit.integrands=true, because the generated code does not round its
+// results as mxparser does and so can differ from it in the last bits; they
+// are then compiled when CompiledFunction creates them, so every sample of an
+// integration comes from one evaluator. -Djit=false turns both off and
+// -Djit.threshold=N changes N. A program that cannot be compiled keeps running
+// in the interpreter; with -Dmetrics=true such failures are counted as
+// jit.failures.
+//Date: 10/17/2026
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+public final class ExpressionJit {
+	public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("jit", "true"));
+	public static final int THRESHOLD = Integer.getInteger("jit.threshold", 1000);
+	public static final boolean INTEGRANDS = Boolean.getBoolean("jit.integrands");
+
+	// Generated calculator code: variables holds one value per declared variable.
+	public interface LongCode {
+		long evaluate(long[] variables);
+	}
+
+	private static final String HELPERS = "ExpressionJit";
+
+	private ExpressionJit() {
+	}
+
+	// This method compiles a program to exact long code, or returns null if the
+	// class could not be generated or loaded.
+	public static LongCode compileLong(RpnProgram program) {
+		try {
+			return (LongCode) define(generateLong(program));
+		} catch (IOException | ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+			return failed();
+		}
+	}
+
+	// This method compiles a program with at most one variable, x, to a double
+	// function of x, or returns null if it cannot be compiled.
+	public static DoubleUnaryOperator compileDouble(RpnProgram program) {
+		if (program.variables().length > 1) {
+			return null;
+		}
+		try {
+			return (DoubleUnaryOperator) define(generateDouble(program));
+		} catch (IOException | ReflectiveOperationException | LinkageError | IllegalArgumentException e) {
+			return failed();
+		}
+	}
+
+	// This method counts a class that could not be generated or loaded.
+	private static <T> T failed() {
+		if (Metrics.ENABLED) {
+			Metrics.counter("jit.failures").increment();
+		}
+		return null;
+	}
+
+	// This method loads a generated class as a hidden class and creates an instance.
+	private static Object define(byte[] classFile) throws ReflectiveOperationException {
+		MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClass(classFile, true);
+		return hidden.lookupClass().getConstructor().newInstance();
+	}
+
+	// ------------------------------------------------------------ generation
+
+	private static byte[] generateLong(RpnProgram program) throws IOException {
+		ClassFile file = new ClassFile("ExpressionJit$Long", "ExpressionJit$LongCode");
+		String suffix = program.allowsNegative() ? "" : "NonNegative";
+		Code code = new Code();
+		int[] ops = program.code();
+		for (int pc = 0; pc < ops.length; pc++) {
+			switch (ops[pc]) {
+				case RpnProgram.OP_PUSH:
+					code.op(0x14).u2(file.longConstant(ops[++pc])); // ldc2_w
+					break;
+				case RpnProgram.OP_VAR:
+					code.op(0x2B); // aload_1
+					code.op(0x11).u2(ops[++pc]); // sipush
+					code.op(0x2F); // laload
+					break;
+				case RpnProgram.OP_NEG:
+					code.op(0xB8).u2(file.method(HELPERS, "negate", "(J)J")); // invokestatic
+					break;
+				default:
+					String name = new String[] { null, "add", "subtract", "multiply", "divide" }[ops[pc]];
+					code.op(0xB8).u2(file.method(HELPERS, name + suffix, "(JJ)J"));
+			}
+		}
+		code.op(0xAD); // lreturn
+		file.addMethod("evaluate", "([J)J", 2 * program.maxDepth() + 2, 2, code);
+		return file.toByteArray();
+	}
+
+	private static byte[] generateDouble(RpnProgram program) throws IOException {
+		ClassFile file = new ClassFile("ExpressionJit$Double", "java/util/function/DoubleUnaryOperator");
+		Code code = new Code();
+		int[] ops = program.code();
+		for (int pc = 0; pc < ops.length; pc++) {
+			switch (ops[pc]) {
+				case RpnProgram.OP_PUSH:
+					code.op(0x14).u2(file.doubleConstant(ops[++pc])); // ldc2_w
+					break;
+				case RpnProgram.OP_VAR:
+					pc++;
+					code.op(0x27); // dload_1
+					break;
+				case RpnProgram.OP_NEG:
+					code.op(0x77); // dneg
+					break;
+				case RpnProgram.OP_ADD:
+					code.op(0x63); // dadd
+					break;
+				case RpnProgram.OP_SUB:
+					code.op(0x67); // dsub
+					break;
+				case RpnProgram.OP_MUL:
+					code.op(0x6B); // dmul
+					break;
+				default:
+					code.op(0xB8).u2(file.method(HELPERS, "divide", "(DD)D")); // invokestatic
+			}
+		}
+		code.op(0xAF); // dreturn
+		file.addMethod("applyAsDouble", "(D)D", 2 * program.maxDepth() + 2, 3, code);
+		return file.toByteArray();
+	}
+
+	// Bytes of one method body.
+	private static final class Code {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		Code op(int opcode) {
+			bytes.write(opcode);
+			return this;
+		}
+
+		Code u2(int value) {
+			bytes.write(value >>> 8);
+			bytes.write(value);
+			return this;
+		}
+	}
+
+	// A minimal class file writer: a public final class with a no-argument
+	// constructor, one interface, and methods without branches (so no stack
+	// map frames are needed).
+	private static final class ClassFile {
+		private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+		private final DataOutputStream poolOut = new DataOutputStream(pool);
+		private final Map<String, Integer> entries = new HashMap<>();
+		private int poolCount = 1;
+		private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+		private final DataOutputStream methodsOut = new DataOutputStream(methods);
+		private int methodCount;
+		private final int thisClass;
+		private final int superClass;
+		private final int anInterface;
+
+		ClassFile(String name, String interfaceName) throws IOException {
+			thisClass = classRef(name);
+			superClass = classRef("java/lang/Object");
+			anInterface = classRef(interfaceName);
+			Code constructor = new Code();
+			constructor.op(0x2A); // aload_0
+			constructor.op(0xB7).u2(method("java/lang/Object", "<init>", "()V")); // invokespecial
+			constructor.op(0xB1); // return
+			addMethod("<init>", "()V", 1, 1, constructor);
+		}
+
+		// This method returns the index of a pool entry, adding it on first use.
+		private int entry(String key, int slots, PoolWriter writer) throws IOException {
+			Integer index = entries.get(key);
+			if (index == null) {
+				writer.write(poolOut);
+				index = poolCount;
+				poolCount += slots;
+				entries.put(key, index);
+			}
+			return index;
+		}
+
+		int utf8(String value) throws IOException {
+			return entry("U" + value, 1, out -> {
+				out.writeByte(1);
+				out.writeUTF(value);
+			});
+		}
+
+		int classRef(String name) throws IOException {
+			int nameIndex = utf8(name);
+			return entry("C" + name, 1, out -> {
+				out.writeByte(7);
+				out.writeShort(nameIndex);
+			});
+		}
+
+		int method(String owner, String name, String descriptor) throws IOException {
+			int ownerIndex = classRef(owner);
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+			int nameAndType = entry("N" + name + descriptor, 1, out -> {
+				out.writeByte(12);
+				out.writeShort(nameIndex);
+				out.writeShort(descriptorIndex);
+			});
+			return entry("M" + owner + "." + name + descriptor, 1, out -> {
+				out.writeByte(10);
+				out.writeShort(ownerIndex);
+				out.writeShort(nameAndType);
+			});
+		}
+
+		// Long and double entries take two pool slots.
+		int longConstant(long value) throws IOException {
+			return entry("J" + value, 2, out -> {
+				out.writeByte(5);
+				out.writeLong(value);
+			});
+		}
+
+		int doubleConstant(double value) throws IOException {
+			return entry("D" + value, 2, out -> {
+				out.writeByte(6);
+				out.writeDouble(value);
+			});
+		}
+
+		void addMethod(String name, String descriptor, int maxStack, int maxLocals, Code code)
+				throws IOException {
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+			int codeAttribute = utf8("Code");
+			byte[] body = code.bytes.toByteArray();
+			methodsOut.writeShort(0x0001 | (name.equals("<init>") ? 0 : 0x0010)); // public, final
+			methodsOut.writeShort(nameIndex);
+			methodsOut.writeShort(descriptorIndex);
+			methodsOut.writeShort(1);
+			methodsOut.writeShort(codeAttribute);
+			methodsOut.writeInt(12 + body.length);
+			methodsOut.writeShort(maxStack);
+			methodsOut.writeShort(maxLocals);
+			methodsOut.writeInt(body.length);
+			methodsOut.write(body);
+			methodsOut.writeShort(0); // exception table
+			methodsOut.writeShort(0); // attributes
+			methodCount++;
+		}
+
+		byte[] toByteArray() throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(61); // Java 17
+			out.writeShort(poolCount);
+			out.write(pool.toByteArray());
+			out.writeShort(0x0001 | 0x0010 | 0x0020); // public, final, super
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(anInterface);
+			out.writeShort(0); // fields
+			out.writeShort(methodCount);
+			out.write(methods.toByteArray());
+			out.writeShort(0); // attributes
+			return bytes.toByteArray();
+		}
+	}
+
+	private interface PoolWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	// ------------------------------------------------- helpers called by code
+
+	public static long add(long a, long b) {
+		return Math.addExact(a, b);
+	}
+
+	public static long subtract(long a, long b) {
+		return Math.subtractExact(a, b);
+	}
+
+	public static long multiply(long a, long b) {
+		return Math.multiplyExact(a, b);
+	}
+
+	public static long divide(long a, long b) {
+		if (b == 0 || (a == Long.MIN_VALUE && b == -1)) {
+			throw new ArithmeticException("division");
+		}
+		return a / b;
+	}
+
+	public static long negate(long a) {
+		return Math.negateExact(a);
+	}
+
+	// RPN programs do not allow negative operands.
+	private static void requireNonNegative(long a, long b) {
+		if ((a | b) < 0) {
+			throw new ArithmeticException("negative operand");
+		}
+	}
+
+	public static long addNonNegative(long a, long b) {
+		requireNonNegative(a, b);
+		return Math.addExact(a, b);
+	}
+
+	public static long subtractNonNegative(long a, long b) {
+		requireNonNegative(a, b);
+		return a - b;
+	}
+
+	public static long multiplyNonNegative(long a, long b) {
+		requireNonNegative(a, b);
+		return Math.multiplyExact(a, b);
+	}
+
+	public static long divideNonNegative(long a, long b) {
+		requireNonNegative(a, b);
+		return divide(a, b);
+	}
+
+	public static double divide(double a, double b) {
+		return b == 0 ? Double.NaN : a / b;
+	}
+
+}
@@ -0,0 +1,161 @@
+//Description: This is a hash table from String keys to int values, used for the
+// Washington code book. It uses open addressing with linear probing over
+// parallel arrays (keys, their hashes, and int values), so a lookup touches a
+// few adjacent array slots instead of chasing entry objects, and no value is
+// boxed. The stored hash is compared before the key, so String.equals is only
+// called on a real candidate.
+//Date: 10/17/2026
+
+public class HashTable implements CodeLookup {
+	// The code book has about 763 entries; 2048 slots keeps the load under 40%.
+	private static final int DEFAULT_CAPACITY = 2048;
+	// Grow once more than half the slots are used.
+	private static final int MAX_LOAD_PERCENT = 50;
+
+	private String[] keys;
+	private int[] hashes;
+	private int[] values;
+	private int mask;
+	int size;
+
+	// Create an empty table sized for the code book.
+	public HashTable() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	// Create an empty table with room for at least capacity slots.
+	public HashTable(int capacity) {
+		int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		keys = new String[slots];
+		hashes = new int[slots];
+		values = new int[slots];
+		mask = slots - 1;
+	}
+
+	// This method spreads String.hashCode (which String caches) over all bits so
+	// that masking by the table size uses the high bits too.
+	private static int hash(String key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	// This method returns the slot holding key, or -1 if it is not in the table.
+	private int find(String key) {
+		int h = hash(key);
+		for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+			String candidate = keys[slot];
+			if (candidate == null) {
+				return -1;
+			}
+			if (hashes[slot] == h && candidate.equals(key)) {
+				return slot;
+			}
+		}
+	}
+
+	// This method inserts a key with its code, replacing the code if the key is
+	// already present.
+	public void insert(String key, int code) {
+		if ((size + 1) * 100 > keys.length * MAX_LOAD_PERCENT) {
+			resize(keys.length * 2);
+		}
+		int h = hash(key);
+		int slot = h & mask;
+		while (keys[slot] != null) {
+			if (hashes[slot] == h && keys[slot].equals(key)) {
+				values[slot] = code;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		hashes[slot] = h;
+		values[slot] = code;
+		size++;
+	}
+
+	// This method rehashes every entry into a table with the given number of slots.
+	private void resize(int slots) {
+		String[] oldKeys = keys;
+		int[] oldHashes = hashes;
+		int[] oldValues = values;
+		keys = new String[slots];
+		hashes = new int[slots];
+		values = new int[slots];
+		mask = slots - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (keys[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				hashes[slot] = oldHashes[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	// This method returns the code for key, or defaultCode if the key is not in
+	// the table. One probe sequence answers both "is it there" and "what is it".
+	@Override
+	public int getOrDefault(String key, int defaultCode) {
+		int slot = find(key);
+		return slot < 0 ? defaultCode : values[slot];
+	}
+
+	// This method looks up a key given as ISO-8859-1 bytes. The hash is computed
+	// exactly as String.hashCode would for the same characters.
+	@Override
+	public int getOrDefault(byte[] buffer, int off, int len, int defaultCode) {
+		int stringHash = 0;
+		for (int i = off; i < off + len; i++) {
+			stringHash = 31 * stringHash + (buffer[i] & 0xFF);
+		}
+		int h = stringHash * 0x9E3779B9;
+		h ^= h >>> 16;
+		for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+			String candidate = keys[slot];
+			if (candidate == null) {
+				return defaultCode;
+			}
+			if (hashes[slot] == h && matches(candidate, buffer, off, len)) {
+				return values[slot];
+			}
+		}
+	}
+
+	// This method compares a key with a run of ISO-8859-1 bytes.
+	private static boolean matches(String key, byte[] buffer, int off, int len) {
+		if (key.length() != len) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (key.charAt(i) != (buffer[off + i] & 0xFF)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// This method checks if the key is in the table.
+	public boolean access(String key) {
+		return find(key) >= 0;
+	}
+
+	// This method returns the code for key, or -1 if the key is not in the table.
+	public int accessCode(String key) {
+		return getOrDefault(key, -1);
+	}
+
+	// This method returns the number of keys in the table.
+	public int size() {
+		return size;
+	}
+
+	// This method check if the table has no keys or is empty.
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+}
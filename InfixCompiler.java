@@ -0,0 +1,217 @@
+//Description: Infix front end for the calculator. An expression such as
+// "(1 + 2) * -3 / 4" is tokenized one character at a time (no String.split,
+// so spaces are optional) and converted by the shunting-yard algorithm, with
+// the pending operators kept on our Stack, straight into the same RpnProgram
+// opcodes the RPN front end produces. Precedence is unary minus, then * and /,
+// then + and -; binary operators are left-associative. A minus applied
+// directly to a number is folded into the literal. Declared variable names
+// may be used wherever a number may.
+//Date: 10/17/2026
+
+public final class InfixCompiler {
+	// Marker for an open parenthesis on the operator stack.
+	private static final int LEFT_PAREN = -1;
+
+	private InfixCompiler() {
+	}
+
+	// This method compiles an infix expression. A malformed expression (unknown
+	// character, missing operand or operator, unbalanced parentheses) throws an
+	// IllegalArgumentException.
+	public static RpnProgram compile(String expression) {
+		return compile(expression, new String[0]);
+	}
+
+	// This method compiles an infix expression that may use the named variables.
+	public static RpnProgram compile(String expression, String... variables) {
+		Emitter out = new Emitter(expression.length());
+		Stack<Integer> operators = new Stack<>();
+		boolean expectOperand = true;
+
+		int i = 0;
+		int end = expression.length();
+		while (i < end) {
+			char c = expression.charAt(i);
+			if (c == ' ' || c == '\t') {
+				i++;
+				continue;
+			}
+
+			if (c >= '0' && c <= '9') {
+				if (!expectOperand) {
+					throw new IllegalArgumentException("Missing operator before '" + c + "'");
+				}
+				int start = i;
+				while (i < end && expression.charAt(i) >= '0' && expression.charAt(i) <= '9') {
+					i++;
+				}
+				out.push(parseLiteral(expression, start, i));
+				expectOperand = false;
+				continue;
+			}
+
+			if (RpnProgram.isIdentifierStart(c)) {
+				int start = i;
+				while (i < end && RpnProgram.isIdentifierPart(expression.charAt(i))) {
+					i++;
+				}
+				if (variables.length == 0) {
+					throw new IllegalArgumentException("Unexpected character '" + c + "'");
+				}
+				if (!expectOperand) {
+					throw new IllegalArgumentException("Missing operator before '" + expression.substring(start, i) + "'");
+				}
+				out.variable(RpnProgram.variableIndex(variables, expression, start, i));
+				expectOperand = false;
+				continue;
+			}
+
+			i++;
+			switch (c) {
+				case '(':
+					if (!expectOperand) {
+						throw new IllegalArgumentException("Missing operator before '('");
+					}
+					operators.push(LEFT_PAREN);
+					break;
+				case ')':
+					if (expectOperand) {
+						throw new IllegalArgumentException("Missing operand before ')'");
+					}
+					while (!operators.isEmpty() && operators.top() != LEFT_PAREN) {
+						out.emit(operators.pop());
+					}
+					if (operators.isEmpty()) {
+						throw new IllegalArgumentException("Unmatched ')'");
+					}
+					operators.pop();
+					break;
+				case '+':
+				case '-':
+				case '*':
+				case '/':
+					if (expectOperand) {
+						// A sign rather than an operator: unary minus binds tighter
+						// than everything, and unary plus does nothing.
+						if (c == '-') {
+							operators.push(RpnProgram.OP_NEG);
+						} else if (c != '+') {
+							throw new IllegalArgumentException("Missing operand for '" + c + "'");
+						}
+						break;
+					}
+					int opcode = binaryOpcode(c);
+					while (!operators.isEmpty() && operators.top() != LEFT_PAREN
+							&& precedence(operators.top()) >= precedence(opcode)) {
+						out.emit(operators.pop());
+					}
+					operators.push(opcode);
+					expectOperand = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Unexpected character '" + c + "'");
+			}
+		}
+
+		if (expectOperand) {
+			throw new IllegalArgumentException(out.isEmpty() && operators.isEmpty() ? "Empty expression"
+					: "Missing operand at end of expression");
+		}
+		while (!operators.isEmpty()) {
+			int opcode = operators.pop();
+			if (opcode == LEFT_PAREN) {
+				throw new IllegalArgumentException("Unmatched '('");
+			}
+			out.emit(opcode);
+		}
+		return out.program(variables);
+	}
+
+	private static int binaryOpcode(char c) {
+		switch (c) {
+			case '+':
+				return RpnProgram.OP_ADD;
+			case '-':
+				return RpnProgram.OP_SUB;
+			case '*':
+				return RpnProgram.OP_MUL;
+			default:
+				return RpnProgram.OP_DIV;
+		}
+	}
+
+	private static int precedence(int opcode) {
+		switch (opcode) {
+			case RpnProgram.OP_NEG:
+				return 3;
+			case RpnProgram.OP_MUL:
+			case RpnProgram.OP_DIV:
+				return 2;
+			default:
+				return 1;
+		}
+	}
+
+	// This method parses an unsigned integer literal, which must fit in an int.
+	private static int parseLiteral(String expression, int start, int end) {
+		try {
+			return Integer.parseInt(expression, start, end, 10);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid operand '" + expression.substring(start, end) + "'");
+		}
+	}
+
+	// Collects opcodes in RPN order and tracks the operand stack depth.
+	private static final class Emitter {
+		private final int[] code;
+		private int length;
+		private int depth;
+		private int maxDepth;
+		// Position of the literal of the last instruction if it was a push, else -1.
+		private int lastLiteral = -1;
+
+		// Every literal takes at least one character and two code slots, and every
+		// operator one character and one slot.
+		Emitter(int expressionLength) {
+			code = new int[2 * expressionLength + 2];
+		}
+
+		void push(int literal) {
+			code[length++] = RpnProgram.OP_PUSH;
+			lastLiteral = length;
+			code[length++] = literal;
+			depth++;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+
+		void variable(int index) {
+			code[length++] = RpnProgram.OP_VAR;
+			code[length++] = index;
+			lastLiteral = -1;
+			depth++;
+			maxDepth = Math.max(maxDepth, depth);
+		}
+
+		void emit(int opcode) {
+			if (opcode == RpnProgram.OP_NEG) {
+				if (lastLiteral == length - 1) {
+					code[lastLiteral] = -code[lastLiteral];
+					return;
+				}
+			} else {
+				depth--;
+			}
+			code[length++] = opcode;
+			lastLiteral = -1;
+		}
+
+		boolean isEmpty() {
+			return length == 0;
+		}
+
+		RpnProgram program(String[] variables) {
+			return RpnProgram.of(code, length, maxDepth, true, variables);
+		}
+	}
+
+}
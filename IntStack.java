@@ -0,0 +1,72 @@
+//Description: This is an array-backed stack of primitive ints. It has the same
+// contract as Stack<T> but stores values in a growable int[] so pushing and
+// popping never allocate once the array has reached its working size.
+//Date: 10/17/2026
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+public class IntStack {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] items;
+	int size;
+
+	// Create an empty stack.
+	public IntStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	// Create an empty stack that can hold initialCapacity items before growing.
+	public IntStack(int initialCapacity) {
+		items = new int[Math.max(1, initialCapacity)];
+	}
+
+	// This method pushes an item onto the stack.
+	public void push(int item) {
+		if (size == items.length) {
+			items = Arrays.copyOf(items, size * 2);
+		}
+		items[size++] = item;
+	}
+
+	// This method pops/removes the top item from the stack and returns the value
+	// of the popped item. There is no null to return for a primitive, so popping
+	// an empty stack throws and callers should check isEmpty() or size() first.
+	public int pop() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return items[--size];
+	}
+
+	// This method returns the "top" item on the stack without popping it.
+	public int top() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return items[size - 1];
+	}
+
+	// This method returns the number of elements in the stack.
+	public int size() {
+		return size;
+	}
+
+	// This method check if the stack has no elements or is empty.
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// This method makes the stack empty.
+	public void makeEmpty() {
+		clear();
+	}
+
+	// This method empties the stack but keeps the backing array, so a stack can
+	// be reused for the next expression without reallocating.
+	public void clear() {
+		size = 0;
+	}
+
+}
@@ -0,0 +1,56 @@
+//Description: The approximations produced by one integration run, one value
+// per requested rule, together with how many times f was evaluated.
+//Date: 10/17/2026
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+public class IntegrationResult {
+
+    private final double[] values = new double[IntegrationRule.values().length];
+    private final EnumSet<IntegrationRule> rules;
+    private final int n;
+    private final long evaluations;
+
+    // Constructor is used by the integration engines, which fill in values with set()
+    IntegrationResult(EnumSet<IntegrationRule> rules, int n, long evaluations) {
+        this.rules = EnumSet.copyOf(rules);
+        this.n = n;
+        this.evaluations = evaluations;
+        Arrays.fill(values, Double.NaN);
+    }
+
+    // Method to record the value computed for a rule
+    void set(IntegrationRule rule, double value) {
+        values[rule.ordinal()] = value;
+    }
+
+    // Method to get the approximation for a rule, or NaN if it was not requested
+    public double get(IntegrationRule rule) {
+        return values[rule.ordinal()];
+    }
+
+    // Method to get the rules that were computed
+    public EnumSet<IntegrationRule> rules() {
+        return EnumSet.copyOf(rules);
+    }
+
+    // Method to get the number of subintervals
+    public int n() {
+        return n;
+    }
+
+    // Method to get how many times f was evaluated
+    public long evaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (IntegrationRule rule : rules) {
+            sb.append(rule.label()).append(": ").append(get(rule)).append('\n');
+        }
+        return sb.toString();
+    }
+}
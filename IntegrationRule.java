@@ -0,0 +1,43 @@
+//Description: The numerical integration rules calcproject can compute, with
+// the label each one is shown under in the results panel.
+//Date: 10/17/2026
+
+public enum IntegrationRule {
+    MIDPOINT("Midpoint Approximation"),
+    LEFT_SUM("Left Sum Approximation"),
+    RIGHT_SUM("Right Sum Approximation"),
+    TRAPEZOID("Trapezoid Approximation"),
+    SIMPSON("Simpson Approximation");
+
+    private final String label;
+
+    IntegrationRule(String label) {
+        this.label = label;
+    }
+
+    // Method to get the display label for the rule
+    public String label() {
+        return label;
+    }
+
+    // Method to get the rule for a name such as "simpson", "left_sum" or "left"
+    public static IntegrationRule fromName(String name) {
+        String key = name.trim().toUpperCase().replace('-', '_');
+        switch (key) {
+            case "LEFT":
+            case "LEFTSUM":
+                return LEFT_SUM;
+            case "RIGHT":
+            case "RIGHTSUM":
+                return RIGHT_SUM;
+            default:
+                return valueOf(key);
+        }
+    }
+
+    // Method to check whether the rule samples the grid points a + i*h
+    // (every rule except midpoint)
+    public boolean usesGridPoints() {
+        return this != MIDPOINT;
+    }
+}
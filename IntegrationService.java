@@ -0,0 +1,552 @@
+//Description: Headless batch mode for calcproject. Integration jobs are read
+// one per line from a file or standard input, either as a JSON object
+//   {"id": "1", "function": "sin(x)", "a": 0, "b": 3.14, "n": 1000,
+//    "rules": ["simpson", "trapezoid"], "png": "plot.png"}
+// or as CSV with the columns id,function,a,b,n,tolerance,rules,png (rules
+// separated by ';'). Jobs run concurrently on a bounded thread pool and one
+// JSON result line per job is streamed to standard output in input order.
+// Parsed functions are cached and shared across jobs. A job with a tolerance
+// also runs adaptive Simpson, and a job with a png path renders the chart
+// off-screen to that file instead of opening a window. Each cached function
+// also keeps a cache of its samples, so a job that repeats or refines an
+// earlier one (the same a and b at n, 2n, 4n...) only evaluates the new points;
+// the job's cache hits and hit rate are included in its result.
+//
+// Run it as "java IntegrationService [file] [--threads N]". This class does not
+// extend an AWT type, so headless mode is set before AWT loads and no display
+// or X libraries are needed. "java calcproject --headless ..." also works, but
+// calcproject is a JFrame, so AWT has already started by the time its main
+// runs; on a machine with a display, pass -Djava.awt.headless=true with it.
+//Date: 10/17/2026
+
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+import org.mariuszgromada.math.mxparser.License;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+public class IntegrationService {
+
+    private static final int FUNCTION_CACHE_CAPACITY = 256;
+    // Samples kept per function; -Dsamples.capacity=0 turns the sample cache off
+    private static final int SAMPLE_CACHE_CAPACITY = Integer.getInteger("samples.capacity", 1 << 18);
+    private static final double DEFAULT_TOLERANCE = 1e-10;
+    private static final long DEFAULT_MAX_EVALUATIONS = 10_000_000;
+    private static final int PNG_WIDTH = 800;
+    private static final int PNG_HEIGHT = 600;
+
+    // One parsed integration job
+    static final class Job {
+        String id = "";
+        String function;
+        double a = Double.NaN;
+        double b = Double.NaN;
+        int n;
+        double tolerance = Double.NaN;
+        long maxEvaluations = DEFAULT_MAX_EVALUATIONS;
+        EnumSet<IntegrationRule> rules = EnumSet.noneOf(IntegrationRule.class);
+        boolean adaptive;
+        String png;
+    }
+
+    // A cached function: mxparser evaluators are not thread-safe, so each pool
+    // thread parses its own copy the first time it sees the function
+    private static final class CachedFunction {
+        final String functionStr;
+        final String syntaxError;
+        final ThreadLocal<CompiledFunction> evaluators;
+        final SampleCache samples;
+
+        CachedFunction(String functionStr) {
+            CompiledFunction first = new CompiledFunction(functionStr);
+            this.functionStr = functionStr;
+            this.syntaxError = first.isValid() ? null : first.errorMessage();
+            this.evaluators = ThreadLocal.withInitial(() -> new CompiledFunction(functionStr));
+            this.samples = SAMPLE_CACHE_CAPACITY > 0 ? new SampleCache(SAMPLE_CACHE_CAPACITY) : null;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int maxInFlight;
+    private final Map<String, CachedFunction> functions;
+
+    // Constructor for a service running up to threads jobs at once
+    public IntegrationService(int threads) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        maxInFlight = threads * 4;
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxInFlight), new ThreadPoolExecutor.CallerRunsPolicy());
+        functions = new LinkedHashMap<String, CachedFunction>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedFunction> eldest) {
+                return size() > FUNCTION_CACHE_CAPACITY;
+            }
+        };
+    }
+
+    // Main method for "java IntegrationService [file] [--threads N]"
+    public static void main(String[] args) throws IOException {
+        License.iConfirmNonCommercialUse("JagodaOP");
+        String[] headlessArgs = new String[args.length + 1];
+        headlessArgs[0] = "--headless";
+        System.arraycopy(args, 0, headlessArgs, 1, args.length);
+        run(headlessArgs);
+    }
+
+    // Entry point used by calcproject for "--headless [file] [--threads N]". The
+    // headless property only takes effect if AWT has not been loaded yet.
+    public static void run(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        String file = null;
+        int threads = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                try {
+                    threads = Integer.parseInt(i + 1 < args.length ? args[++i] : "");
+                } catch (NumberFormatException e) {
+                    System.err.println("Usage: java IntegrationService [file|-] [--threads N]");
+                    return;
+                }
+            } else if (!args[i].equals("-")) {
+                file = args[i];
+            }
+        }
+
+        BufferedReader in = file != null
+                ? Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+        IntegrationService service = new IntegrationService(threads);
+        try {
+            service.process(in, out);
+        } finally {
+            service.shutdown();
+            in.close();
+            out.flush();
+        }
+    }
+
+    // Method to run every job read from in and write one result line per job to
+    // out, in input order
+    public void process(BufferedReader in, Writer out) throws IOException {
+        ArrayDeque<Future<String>> inFlight = new ArrayDeque<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("id,"))) {
+                continue; // Blank line, comment or CSV header
+            }
+
+            String jobLine = line;
+            int jobNumber = lineNumber;
+            inFlight.add(executor.submit(() -> runLine(jobLine, jobNumber)));
+
+            // Write finished results in order once enough jobs are queued
+            while (inFlight.size() > maxInFlight || (!inFlight.isEmpty() && inFlight.peek().isDone())) {
+                writeResult(inFlight.poll(), out);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            writeResult(inFlight.poll(), out);
+        }
+        out.flush();
+    }
+
+    private static void writeResult(Future<String> result, Writer out) throws IOException {
+        try {
+            out.write(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a job", e);
+        } catch (ExecutionException e) {
+            out.write("{\"error\": " + quote(String.valueOf(e.getCause())) + "}");
+        }
+        out.write('\n');
+    }
+
+    // Method to stop the worker threads once queued jobs have finished
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Method to parse and run one job line, returning its JSON result line
+    String runLine(String line, int lineNumber) {
+        Job job;
+        try {
+            job = line.startsWith("{") ? parseJson(line) : parseCsv(line);
+        } catch (RuntimeException e) {
+            return "{\"line\": " + lineNumber + ", \"error\": " + quote("Invalid job: " + e.getMessage()) + "}";
+        }
+        try {
+            return runJob(job);
+        } catch (Exception e) {
+            return "{\"id\": " + quote(job.id) + ", \"error\": " + quote(String.valueOf(e.getMessage())) + "}";
+        }
+    }
+
+    // Method to run one job and format its result
+    String runJob(Job job) throws IOException {
+        if (job.function == null || Double.isNaN(job.a) || Double.isNaN(job.b)) {
+            throw new IllegalArgumentException("function, a and b are required");
+        }
+        if (job.n <= 0 && Double.isNaN(job.tolerance) && !job.adaptive) {
+            throw new IllegalArgumentException("either n or tolerance is required");
+        }
+        if (job.n > 0 && job.rules.isEmpty() && !job.adaptive) {
+            job.rules = EnumSet.allOf(IntegrationRule.class);
+        }
+        if (!Double.isNaN(job.tolerance)) {
+            job.adaptive = true;
+        }
+        if (job.adaptive && Double.isNaN(job.tolerance)) {
+            job.tolerance = DEFAULT_TOLERANCE;
+        }
+        if (!job.rules.isEmpty() && job.n <= 0) {
+            throw new IllegalArgumentException("rules " + job.rules + " need n");
+        }
+
+        CachedFunction cached = function(job.function);
+        if (cached.syntaxError != null) {
+            throw new IllegalArgumentException("Invalid function: " + cached.syntaxError);
+        }
+        CompiledFunction evaluator = cached.evaluators.get();
+        // Bytecode is cheaper than a cache lookup, so compiled functions skip the cache
+        SampleCache.Memo memo = cached.samples != null && !evaluator.isCompiled()
+                ? cached.samples.memoize(evaluator) : null;
+        DoubleUnaryOperator f = memo != null ? memo : evaluator;
+
+        long start = System.nanoTime();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\": ").append(quote(job.id));
+        json.append(", \"function\": ").append(quote(job.function));
+        json.append(", \"a\": ").append(number(job.a)).append(", \"b\": ").append(number(job.b));
+
+        long evaluations = 0;
+        if (!job.rules.isEmpty()) {
+            IntegrationResult result = IntegrationEngine.integrate(f, job.a, job.b, job.n, job.rules);
+            evaluations += result.evaluations();
+            json.append(", \"n\": ").append(job.n).append(", \"results\": {");
+            String separator = "";
+            for (IntegrationRule rule : result.rules()) {
+                json.append(separator).append(quote(rule.name().toLowerCase())).append(": ")
+                        .append(number(result.get(rule)));
+                separator = ", ";
+            }
+            json.append('}');
+        }
+        if (job.adaptive) {
+            AdaptiveQuadrature.Result adaptive = AdaptiveQuadrature.integrate(
+                    f, job.a, job.b, job.tolerance, job.tolerance, job.maxEvaluations);
+            evaluations += adaptive.evaluations();
+            json.append(", \"adaptive\": {\"estimate\": ").append(number(adaptive.estimate()))
+                    .append(", \"errorBound\": ").append(number(adaptive.errorBound()))
+                    .append(", \"evaluations\": ").append(adaptive.evaluations())
+                    .append(", \"converged\": ").append(adaptive.converged()).append('}');
+        }
+        if (job.png != null) {
+            // The chart gets its own evaluator so it never shares one with another job
+            JFreeChart chart = calcproject.createChart(cached.evaluators.get().copy(), job.a, job.b);
+            ChartUtilities.saveChartAsPNG(new File(job.png), chart, PNG_WIDTH, PNG_HEIGHT);
+            json.append(", \"png\": ").append(quote(job.png));
+        }
+
+        json.append(", \"evaluations\": ").append(evaluations);
+        if (memo != null) {
+            json.append(", \"cache_hits\": ").append(memo.hits())
+                    .append(", \"cache_hit_rate\": ").append(number(memo.hitRate()));
+            if (Metrics.ENABLED) {
+                Metrics.counter("integration.cache.hits").add(memo.hits());
+                Metrics.counter("integration.cache.misses").add(memo.misses());
+            }
+        }
+        json.append(", \"millis\": ").append(number((System.nanoTime() - start) / 1e6));
+        json.append('}');
+        return json.toString();
+    }
+
+    // Method to get the cached parse of a function, parsing it on first use
+    private CachedFunction function(String functionStr) {
+        synchronized (functions) {
+            CachedFunction cached = functions.get(functionStr);
+            if (cached == null) {
+                cached = new CachedFunction(functionStr);
+                functions.put(functionStr, cached);
+            }
+            return cached;
+        }
+    }
+
+    // ------------------------------------------------------------ job parsing
+
+    // Method to parse a CSV job: id,function,a,b,n,tolerance,rules,png
+    static Job parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        Job job = new Job();
+        job.id = field(fields, 0);
+        job.function = emptyToNull(field(fields, 1));
+        job.a = Double.parseDouble(field(fields, 2));
+        job.b = Double.parseDouble(field(fields, 3));
+        if (!field(fields, 4).isEmpty()) {
+            job.n = Integer.parseInt(field(fields, 4));
+        }
+        if (!field(fields, 5).isEmpty()) {
+            job.tolerance = Double.parseDouble(field(fields, 5));
+        }
+        for (String rule : field(fields, 6).split(";")) {
+            addRule(job, rule);
+        }
+        job.png = emptyToNull(field(fields, 7));
+        return job;
+    }
+
+    // Method to split a CSV line, honouring double-quoted fields so functions
+    // such as "max(x,1)" can contain commas
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static void addRule(Job job, String rule) {
+        if (rule.isBlank()) {
+            return;
+        }
+        if (rule.trim().equalsIgnoreCase("adaptive")) {
+            job.adaptive = true;
+        } else {
+            job.rules.add(IntegrationRule.fromName(rule));
+        }
+    }
+
+    // Method to parse a JSON job; only a flat object of strings, numbers and
+    // string arrays is needed, so this is a small recursive-descent reader
+    static Job parseJson(String line) {
+        JsonReader reader = new JsonReader(line);
+        Job job = new Job();
+        reader.expect('{');
+        if (!reader.tryConsume('}')) {
+            do {
+                String key = reader.readString();
+                reader.expect(':');
+                switch (key) {
+                    case "id":
+                        job.id = reader.readScalar();
+                        break;
+                    case "function":
+                        job.function = reader.readString();
+                        break;
+                    case "a":
+                        job.a = Double.parseDouble(reader.readScalar());
+                        break;
+                    case "b":
+                        job.b = Double.parseDouble(reader.readScalar());
+                        break;
+                    case "n":
+                        job.n = Integer.parseInt(reader.readScalar());
+                        break;
+                    case "tolerance":
+                        job.tolerance = Double.parseDouble(reader.readScalar());
+                        break;
+                    case "maxEvaluations":
+                        job.maxEvaluations = Long.parseLong(reader.readScalar());
+                        break;
+                    case "rules":
+                        reader.expect('[');
+                        if (!reader.tryConsume(']')) {
+                            do {
+                                addRule(job, reader.readString());
+                            } while (reader.tryConsume(','));
+                            reader.expect(']');
+                        }
+                        break;
+                    case "png":
+                        job.png = reader.readString();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown field \"" + key + "\"");
+                }
+            } while (reader.tryConsume(','));
+            reader.expect('}');
+        }
+        return job;
+    }
+
+    // A minimal cursor over a JSON text
+    private static final class JsonReader {
+        private final String text;
+        private int position;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        void expect(char c) {
+            if (!tryConsume(c)) {
+                throw new IllegalArgumentException("expected '" + c + "' at " + position);
+            }
+        }
+
+        boolean tryConsume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        String readString() {
+            skipWhitespace();
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    if (position == text.length()) {
+                        break;
+                    }
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case '"':
+                        case '\\':
+                        case '/':
+                            sb.append(escaped);
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'u':
+                            if (position + 4 > text.length()) {
+                                throw new IllegalArgumentException("unterminated string");
+                            }
+                            try {
+                                sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw new IllegalArgumentException(
+                                        "bad escape \\u" + text.substring(position, position + 4));
+                            }
+                            position += 4;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("bad escape \\" + escaped);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new IllegalArgumentException("unterminated string");
+        }
+
+        // Method to read a number, or a string holding one, as text
+        String readScalar() {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",}] \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+    }
+
+    // ------------------------------------------------------------ JSON output
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+}
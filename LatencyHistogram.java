@@ -0,0 +1,108 @@
+//Description: A concurrent latency histogram in the style of HdrHistogram.
+// Values (nanoseconds) are counted in log-linear buckets: each power of two
+// is split into 8 equal sub-buckets, so any recorded value is reported within
+// 12.5% of its true value while the whole long range fits in 512 counters.
+// Recording is one bucket computation and one atomic increment; no value is
+// stored and nothing is allocated.
+//Date: 10/17/2026
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	// This method returns the bucket for a non-negative value. Values below 16
+	// get a bucket each; above that the top four significant bits pick it.
+	static int bucketOf(long value) {
+		if (value < 2 * SUB_BUCKETS) {
+			return (int) Math.max(0, value);
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	// This method returns the smallest value that falls in bucket.
+	static long lowerBound(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	// This method records one value.
+	public void record(long value) {
+		counts.incrementAndGet(bucketOf(value));
+		count.increment();
+		total.add(value);
+		if (value > max.get()) {
+			max.accumulateAndGet(value, Math::max);
+		}
+	}
+
+	// This method returns the number of recorded values.
+	public long count() {
+		return count.sum();
+	}
+
+	// This method returns the mean of the recorded values, or 0 if there are none.
+	public double mean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) total.sum() / n;
+	}
+
+	// This method returns the largest recorded value.
+	public long max() {
+		return max.get();
+	}
+
+	// This method returns a value that at least percentile percent of the
+	// recorded values do not exceed (the top of the bucket it falls in).
+	public long percentile(double percentile) {
+		long[] snapshot = new long[counts.length()];
+		long n = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+			n += snapshot[i];
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= target) {
+				return Math.min(max.get(), lowerBound(i + 1) - 1);
+			}
+		}
+		return max.get();
+	}
+
+	// This method clears every recorded value.
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+		count.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.0f p50=%d p90=%d p99=%d max=%d", count(), mean(), percentile(50),
+				percentile(90), percentile(99), max());
+	}
+
+}
@@ -0,0 +1,226 @@
+//Description: Counters and latency histograms for the calculator, the
+// integration tools and Crypto. Metrics are off unless the JVM is started
+// with -Dmetrics=true; the hot paths check the ENABLED constant first, so
+// when it is false the JIT removes the instrumentation entirely.
+//
+// When enabled, a report is printed every -Dmetrics.interval seconds
+// (default 10) and once more at exit. It goes to standard error so it never
+// mixes with the batch output the tools write to standard output; with
+// -Dmetrics.json=<file> the same report is also written to that file as
+// JSON. Each recorded operation is also committed as a JFR event, so the
+// numbers can be captured with -XX:StartFlightRecording as well.
+//Date: 10/17/2026
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+public final class Metrics {
+	public static final boolean ENABLED = Boolean.getBoolean("metrics");
+
+	private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+	private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+	// calculator
+	private static final LatencyHistogram CALCULATOR_PARSE = histogram("calculator.parse.nanos");
+	private static final LatencyHistogram CALCULATOR_EVALUATE = histogram("calculator.evaluate.nanos");
+	private static final LongAdder CALCULATOR_ERRORS = counter("calculator.errors");
+	// integration
+	private static final LongAdder INTEGRATION_CALLS = counter("integration.f.calls");
+	// Crypto
+	private static final LatencyHistogram ENCRYPT = histogram("crypto.encrypt.nanos");
+	private static final LatencyHistogram DECRYPT = histogram("crypto.decrypt.nanos");
+	private static final LongAdder CODE_BOOK_HITS = counter("crypto.codebook.hits");
+	private static final LongAdder CIPHER_FALLBACKS = counter("crypto.cipher.fallbacks");
+
+	static {
+		if (ENABLED) {
+			long interval = Long.getLong("metrics.interval", 10);
+			ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "metrics-reporter");
+				thread.setDaemon(true);
+				return thread;
+			});
+			if (interval > 0) {
+				reporter.scheduleAtFixedRate(Metrics::report, interval, interval, TimeUnit.SECONDS);
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread(Metrics::report, "metrics-final-report"));
+		}
+	}
+
+	private Metrics() {
+	}
+
+	// This method returns the counter with the given name, creating it if needed.
+	public static LongAdder counter(String name) {
+		return COUNTERS.computeIfAbsent(name, key -> new LongAdder());
+	}
+
+	// This method returns the histogram with the given name, creating it if needed.
+	public static LatencyHistogram histogram(String name) {
+		return HISTOGRAMS.computeIfAbsent(name, key -> new LatencyHistogram());
+	}
+
+	// This method records one calculator expression: the time to fetch or compile
+	// its program and the time to evaluate it.
+	public static void recordCalculation(long parseNanos, long evaluateNanos, boolean ok) {
+		CALCULATOR_PARSE.record(parseNanos);
+		CALCULATOR_EVALUATE.record(evaluateNanos);
+		if (!ok) {
+			CALCULATOR_ERRORS.increment();
+		}
+		CalculationEvent event = new CalculationEvent();
+		if (event.shouldCommit()) {
+			event.parseTime = parseNanos;
+			event.evaluateTime = evaluateNanos;
+			event.ok = ok;
+			event.commit();
+		}
+	}
+
+	// This method records one integration by method: its time, the number of
+	// subintervals and the number of times f was called.
+	public static void recordIntegration(String method, long n, long evaluations, long nanos) {
+		histogram("integration." + method + ".nanos").record(nanos);
+		INTEGRATION_CALLS.add(evaluations);
+		IntegrationEvent event = new IntegrationEvent();
+		if (event.shouldCommit()) {
+			event.method = method;
+			event.subintervals = n;
+			event.evaluations = evaluations;
+			event.time = nanos;
+			event.commit();
+		}
+	}
+
+	// This method records one encryption or decryption: words found in the code
+	// book, words handled by the letter cipher, and the time taken.
+	public static void recordCrypto(boolean encrypt, long hits, long fallbacks, long nanos) {
+		(encrypt ? ENCRYPT : DECRYPT).record(nanos);
+		CODE_BOOK_HITS.add(hits);
+		CIPHER_FALLBACKS.add(fallbacks);
+		CryptoEvent event = new CryptoEvent();
+		if (event.shouldCommit()) {
+			event.encrypt = encrypt;
+			event.codeBookHits = hits;
+			event.cipherFallbacks = fallbacks;
+			event.time = nanos;
+			event.commit();
+		}
+	}
+
+	// This method prints the current report and, if configured, writes it as JSON.
+	public static void report() {
+		StringBuilder text = new StringBuilder("metrics:");
+		for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+			text.append("\n  ").append(counter.getKey()).append(" = ").append(counter.getValue().sum());
+		}
+		for (Map.Entry<String, LatencyHistogram> histogram : new TreeMap<>(HISTOGRAMS).entrySet()) {
+			if (histogram.getValue().count() > 0) {
+				text.append("\n  ").append(histogram.getKey()).append(' ').append(histogram.getValue());
+			}
+		}
+		System.err.println(text);
+
+		String jsonFile = System.getProperty("metrics.json");
+		if (jsonFile != null) {
+			try {
+				Files.write(Paths.get(jsonFile), toJson().getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				System.err.println("Could not write " + jsonFile + ": " + e.getMessage());
+			}
+		}
+	}
+
+	// This method renders every counter and histogram as a JSON object.
+	public static String toJson() {
+		StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+		String separator = "";
+		for (Map.Entry<String, LongAdder> counter : new TreeMap<>(COUNTERS).entrySet()) {
+			json.append(separator).append("\n    \"").append(counter.getKey()).append("\": ")
+					.append(counter.getValue().sum());
+			separator = ",";
+		}
+		json.append("\n  },\n  \"histograms\": {");
+		separator = "";
+		for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			json.append(separator).append("\n    \"").append(entry.getKey()).append("\": {")
+					.append("\"count\": ").append(histogram.count())
+					.append(", \"mean\": ").append(Math.round(histogram.mean()))
+					.append(", \"p50\": ").append(histogram.percentile(50))
+					.append(", \"p90\": ").append(histogram.percentile(90))
+					.append(", \"p99\": ").append(histogram.percentile(99))
+					.append(", \"max\": ").append(histogram.max()).append('}');
+			separator = ",";
+		}
+		return json.append("\n  }\n}\n").toString();
+	}
+
+	@Name("datastructures.Calculation")
+	@Label("RPN Calculation")
+	@Category("Calculator")
+	static final class CalculationEvent extends Event {
+		@Label("Parse Time")
+		@Timespan
+		long parseTime;
+
+		@Label("Evaluate Time")
+		@Timespan
+		long evaluateTime;
+
+		@Label("OK")
+		boolean ok;
+	}
+
+	@Name("datastructures.Integration")
+	@Label("Integration")
+	@Category("Integration")
+	static final class IntegrationEvent extends Event {
+		@Label("Method")
+		String method;
+
+		@Label("Subintervals")
+		long subintervals;
+
+		@Label("Function Evaluations")
+		long evaluations;
+
+		@Label("Time")
+		@Timespan
+		long time;
+	}
+
+	@Name("datastructures.Crypto")
+	@Label("Crypto")
+	@Category("Crypto")
+	static final class CryptoEvent extends Event {
+		@Label("Encrypt")
+		boolean encrypt;
+
+		@Label("Code Book Hits")
+		long codeBookHits;
+
+		@Label("Cipher Fallbacks")
+		long cipherFallbacks;
+
+		@Label("Time")
+		@Timespan
+		long time;
+	}
+
+}
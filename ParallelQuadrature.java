@@ -0,0 +1,185 @@
+//Description: Fixed-step integration split across a ForkJoinPool for very
+// large n. The sample indices are cut into blocks of a fixed size, each block
+// is summed with Neumaier compensation, and the block sums are combined in
+// block order on the calling thread. Because the blocks do not depend on the
+// number of threads and the reduction order is fixed, the result is the same
+// bit for bit whatever the parallelism is.
+//Date: 10/17/2026
+
+import java.util.EnumSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+
+public class ParallelQuadrature {
+
+    // Sample indices per block; the unit of both work and reproducibility
+    private static final int BLOCK_SIZE = 1 << 15;
+
+    // Partial sums stored per block: odd interior, even interior, midpoints
+    private static final int ODD = 0;
+    private static final int EVEN = 1;
+    private static final int MID = 2;
+    private static final int SUMS = 3;
+
+    private final ForkJoinPool pool;
+
+    // Constructor creates a pool with the given parallelism, or one thread per
+    // processor when parallelism is 0 or less
+    public ParallelQuadrature(int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    // Method to integrate a function that is safe to call from several threads
+    public IntegrationResult integrate(DoubleUnaryOperator f, double a, double b, int n,
+                                       EnumSet<IntegrationRule> rules) {
+        return integrate(() -> f, a, b, n, rules);
+    }
+
+    // Method to integrate a function that is not thread-safe: functions supplies
+    // a separate evaluator for each worker thread (for example f::copy)
+    public IntegrationResult integrate(Supplier<? extends DoubleUnaryOperator> functions, double a, double b,
+                                       int n, EnumSet<IntegrationRule> rules) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        double h = (b - a) / n;
+
+        boolean needGrid = false;
+        for (IntegrationRule rule : rules) {
+            needGrid |= rule.usesGridPoints();
+        }
+        boolean needMidpoints = rules.contains(IntegrationRule.MIDPOINT);
+
+        int blocks = (int) ((n + (long) BLOCK_SIZE - 1) / BLOCK_SIZE);
+        double[] partials = new double[blocks * SUMS];
+        ThreadLocal<DoubleUnaryOperator> evaluators = ThreadLocal.withInitial(functions);
+        pool.invoke(new SumBlocks(evaluators, a, h, n, needGrid, needMidpoints, partials, 0, blocks));
+
+        // Combine the block sums in block order so the result never depends on scheduling
+        CompensatedSum odd = new CompensatedSum();
+        CompensatedSum even = new CompensatedSum();
+        CompensatedSum mid = new CompensatedSum();
+        for (int block = 0; block < blocks; block++) {
+            odd.add(partials[block * SUMS + ODD]);
+            even.add(partials[block * SUMS + EVEN]);
+            mid.add(partials[block * SUMS + MID]);
+        }
+
+        double first = 0;
+        double last = 0;
+        long evaluations = 0;
+        if (needGrid) {
+            DoubleUnaryOperator f = functions.get();
+            first = f.applyAsDouble(a);
+            last = f.applyAsDouble(b);
+            evaluations += n + 1;
+        }
+        if (needMidpoints) {
+            evaluations += n;
+        }
+
+        IntegrationResult result = new IntegrationResult(rules, n, evaluations);
+        double oddSum = odd.value();
+        double evenSum = even.value();
+        double interior = oddSum + evenSum;
+        for (IntegrationRule rule : rules) {
+            switch (rule) {
+                case MIDPOINT:
+                    result.set(rule, h * mid.value());
+                    break;
+                case LEFT_SUM:
+                    result.set(rule, h * (first + interior));
+                    break;
+                case RIGHT_SUM:
+                    result.set(rule, h * (interior + last));
+                    break;
+                case TRAPEZOID:
+                    result.set(rule, h * ((first + last) / 2 + interior));
+                    break;
+                case SIMPSON:
+                    result.set(rule, h * (first + last + 4 * oddSum + 2 * evenSum) / 3);
+                    break;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.recordIntegration("parallel", n, evaluations, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    // Method to stop the worker threads
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Task that sums blocks [fromBlock, toBlock), splitting until one block is left
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class SumBlocks extends RecursiveAction {
+        private final ThreadLocal<DoubleUnaryOperator> evaluators;
+        private final double a;
+        private final double h;
+        private final int n;
+        private final boolean grid;
+        private final boolean midpoints;
+        private final double[] partials;
+        private final int fromBlock;
+        private final int toBlock;
+
+        SumBlocks(ThreadLocal<DoubleUnaryOperator> evaluators, double a, double h, int n, boolean grid,
+                  boolean midpoints, double[] partials, int fromBlock, int toBlock) {
+            this.evaluators = evaluators;
+            this.a = a;
+            this.h = h;
+            this.n = n;
+            this.grid = grid;
+            this.midpoints = midpoints;
+            this.partials = partials;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                invokeAll(new SumBlocks(evaluators, a, h, n, grid, midpoints, partials, fromBlock, middle),
+                        new SumBlocks(evaluators, a, h, n, grid, midpoints, partials, middle, toBlock));
+                return;
+            }
+
+            DoubleUnaryOperator f = evaluators.get();
+            int from = fromBlock * BLOCK_SIZE;
+            int to = (int) Math.min(n, (long) from + BLOCK_SIZE);
+
+            if (grid) {
+                // Interior grid points only; a and b are evaluated by the caller
+                CompensatedSum odd = new CompensatedSum();
+                CompensatedSum even = new CompensatedSum();
+                for (int i = Math.max(1, from); i < to; i++) {
+                    double y = f.applyAsDouble(a + i * h);
+                    if ((i & 1) != 0) {
+                        odd.add(y);
+                    } else {
+                        even.add(y);
+                    }
+                }
+                partials[fromBlock * SUMS + ODD] = odd.value();
+                partials[fromBlock * SUMS + EVEN] = even.value();
+            }
+
+            if (midpoints) {
+                CompensatedSum mid = new CompensatedSum();
+                for (int i = from; i < to; i++) {
+                    mid.add(f.applyAsDouble(a + (i + 0.5) * h));
+                }
+                partials[fromBlock * SUMS + MID] = mid.value();
+            }
+        }
+    }
+}
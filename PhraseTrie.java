@@ -0,0 +1,172 @@
+//Description: The code book as a character trie, so that multi-word phrases
+// ("NEW YORK", "GENERAL HOWE") can be matched as well as single words. Phrase
+// words are joined by a single space, which is just another trie label. An
+// encoder walks the trie one word at a time from each position and keeps the
+// longest phrase that ended on a word boundary, so the text is scanned once
+// and the work per position depends on the input, not on the code book size.
+//
+// The trie is stored in parallel arrays (first child, next sibling, label,
+// code) rather than node objects; the root's children are indexed directly
+// by character since nearly every walk starts there. The second and later
+// words of every phrase are kept in a small trie of their own, so a reader
+// can tell where no phrase in progress could cross a word boundary.
+//Date: 10/17/2026
+
+import java.util.Arrays;
+
+public final class PhraseTrie implements CodeLookup {
+	public static final int ROOT = 0;
+	private static final int NO_CODE = -1;
+
+	private int[] firstChild;
+	private int[] nextSibling;
+	private char[] label;
+	private int[] code;
+	private final int[] rootChild = new int[256];
+	private int nodes;
+	private int phrases;
+	// Words that follow a space in some phrase; null in that trie itself.
+	private final PhraseTrie laterWords;
+
+	// Create an empty trie.
+	public PhraseTrie() {
+		this(true);
+	}
+
+	private PhraseTrie(boolean trackLaterWords) {
+		laterWords = trackLaterWords ? new PhraseTrie(false) : null;
+		firstChild = new int[64];
+		nextSibling = new int[64];
+		label = new char[64];
+		code = new int[64];
+		Arrays.fill(rootChild, -1);
+		newNode('\0');
+	}
+
+	// This method builds the trie for a code book: decode holds one phrase per
+	// code book line, and each distinct phrase gets the code table has for it.
+	public static PhraseTrie build(String[] decode, CodeLookup table) {
+		PhraseTrie trie = new PhraseTrie();
+		for (String phrase : decode) {
+			if (phrase != null) {
+				trie.insert(phrase, table.getOrDefault(phrase, NO_CODE));
+			}
+		}
+		return trie;
+	}
+
+	private int newNode(char c) {
+		if (nodes == label.length) {
+			int capacity = nodes * 2;
+			firstChild = Arrays.copyOf(firstChild, capacity);
+			nextSibling = Arrays.copyOf(nextSibling, capacity);
+			label = Arrays.copyOf(label, capacity);
+			code = Arrays.copyOf(code, capacity);
+		}
+		firstChild[nodes] = -1;
+		nextSibling[nodes] = -1;
+		label[nodes] = c;
+		code[nodes] = NO_CODE;
+		return nodes++;
+	}
+
+	// This method inserts a phrase (words separated by single spaces) with its
+	// code, replacing the code if the phrase is already present.
+	public void insert(String phrase, int phraseCode) {
+		int node = ROOT;
+		for (int i = 0; i < phrase.length(); i++) {
+			char c = phrase.charAt(i);
+			int child = step(node, c);
+			if (child < 0) {
+				child = newNode(c);
+				if (node == ROOT && c < rootChild.length) {
+					rootChild[c] = child;
+				}
+				nextSibling[child] = firstChild[node];
+				firstChild[node] = child;
+			}
+			node = child;
+		}
+		if (code[node] == NO_CODE && phraseCode != NO_CODE) {
+			phrases++;
+		}
+		code[node] = phraseCode;
+
+		if (laterWords != null) {
+			for (int space = phrase.indexOf(' '); space >= 0; space = phrase.indexOf(' ', space + 1)) {
+				int end = phrase.indexOf(' ', space + 1);
+				laterWords.insert(phrase.substring(space + 1, end < 0 ? phrase.length() : end), 0);
+			}
+		}
+	}
+
+	// This method returns the child of node labelled c, or -1 if there is none.
+	public int step(int node, char c) {
+		if (node == ROOT) {
+			return c < rootChild.length ? rootChild[c] : findChild(ROOT, c);
+		}
+		return findChild(node, c);
+	}
+
+	private int findChild(int node, char c) {
+		for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+			if (label[child] == c) {
+				return child;
+			}
+		}
+		return -1;
+	}
+
+	// This method follows every character of word from node. It returns the node
+	// reached, or -1 if no phrase continues that way.
+	public int walk(int node, String word) {
+		for (int i = 0; i < word.length() && node >= 0; i++) {
+			node = step(node, word.charAt(i));
+		}
+		return node;
+	}
+
+	// This method follows len ISO-8859-1 bytes of buffer starting at off from node.
+	public int walk(int node, byte[] buffer, int off, int len) {
+		for (int i = off; i < off + len && node >= 0; i++) {
+			node = step(node, (char) (buffer[i] & 0xFF));
+		}
+		return node;
+	}
+
+	// This method returns the code of the phrase ending at node, or -1 if no
+	// phrase ends there.
+	public int code(int node) {
+		return node < 0 ? NO_CODE : code[node];
+	}
+
+	// This method checks whether a longer phrase could follow node with another word.
+	public boolean continues(int node) {
+		return node >= 0 && findChild(node, ' ') >= 0;
+	}
+
+	// This method checks whether the word in len ISO-8859-1 bytes of buffer
+	// starting at off is the second or later word of some phrase. If it is not,
+	// no phrase match can run on into it from the words before.
+	public boolean isLaterWord(byte[] buffer, int off, int len) {
+		return laterWords != null && laterWords.code(laterWords.walk(ROOT, buffer, off, len)) != NO_CODE;
+	}
+
+	@Override
+	public int getOrDefault(String word, int defaultCode) {
+		int phraseCode = code(walk(ROOT, word));
+		return phraseCode == NO_CODE ? defaultCode : phraseCode;
+	}
+
+	@Override
+	public int getOrDefault(byte[] buffer, int off, int len, int defaultCode) {
+		int phraseCode = code(walk(ROOT, buffer, off, len));
+		return phraseCode == NO_CODE ? defaultCode : phraseCode;
+	}
+
+	// This method returns the number of phrases with a code.
+	public int size() {
+		return phrases;
+	}
+
+}
@@ -0,0 +1,264 @@
+//Description: Non-interactive batch mode for the RPN calculator. Reads one
+// expression per line from a file or standard input and writes one result per
+// line, in the same order, through a single buffered writer. Files are read
+// through memory-mapped windows and standard input through a large buffered
+// reader, so there is no Scanner and no per-line System.out.println. With
+// "--parallel N" lines are gathered into blocks that are evaluated on N cores
+// while the next block is being read. With "--infix" each line is an infix
+// expression such as "(1 + 2) * -3".
+//Date: 10/17/2026
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+public class RpnBatch {
+	private static final int BUFFER_SIZE = 1 << 16;
+	// Files are mapped in windows of this size so inputs larger than 2 GB work.
+	private static final long MAP_WINDOW = 1L << 28;
+	// Lines per block handed to the parallel evaluator.
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	private final Writer out;
+	private final RpnProgramCache programs;
+	private final LongStack stack = new LongStack();
+	private final RpnResult result = new RpnResult();
+	private byte[] lineBytes = new byte[256];
+	private long lines;
+	private long errors;
+
+	// Parallel mode only: the block being filled and the block being evaluated.
+	private final RpnParallelEvaluator parallel;
+	private String[] block;
+	private int blockSize;
+	private ForkJoinTask<String[]> pending;
+
+	// Create a batch evaluator that writes results to out.
+	public RpnBatch(Writer out, RpnProgramCache programs) {
+		this(out, programs, null);
+	}
+
+	// Create a batch evaluator that hands blocks of lines to parallel, or
+	// evaluates on the calling thread when parallel is null.
+	public RpnBatch(Writer out, RpnProgramCache programs, RpnParallelEvaluator parallel) {
+		this.out = out;
+		this.programs = programs;
+		this.parallel = parallel;
+		if (parallel != null) {
+			block = new String[BLOCK_SIZE];
+		}
+	}
+
+	// Entry point used by calculator for "--batch [file] [--parallel N] [--infix]".
+	// Without a file, or with "-", expressions are read from standard input. N of
+	// 0 uses every available processor.
+	public static void run(String[] args) throws IOException {
+		String file = null;
+		int threads = -1;
+		Function<String, RpnProgram> compiler = RpnProgram::compile;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--parallel")) {
+				// N is optional, so only take the next argument when it is a number
+				threads = 0;
+				if (i + 1 < args.length) {
+					try {
+						threads = Integer.parseInt(args[i + 1]);
+						i++;
+					} catch (NumberFormatException e) {
+						// Not a count; leave it for the next pass of the loop
+					}
+				}
+			} else if (args[i].equals("--infix")) {
+				compiler = InfixCompiler::compile;
+			} else if (!args[i].equals("-")) {
+				file = args[i];
+			}
+		}
+		RpnParallelEvaluator parallel = threads >= 0 ? new RpnParallelEvaluator(threads, compiler) : null;
+
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.ISO_8859_1), BUFFER_SIZE);
+		RpnBatch batch = new RpnBatch(out, new RpnProgramCache(1 << 16, compiler), parallel);
+
+		long start = System.nanoTime();
+		try {
+			if (file != null) {
+				batch.evaluateFile(Paths.get(file));
+			} else {
+				batch.evaluate(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.ISO_8859_1), BUFFER_SIZE));
+			}
+		} finally {
+			if (parallel != null) {
+				parallel.shutdown();
+			}
+		}
+		out.flush();
+		long elapsed = System.nanoTime() - start;
+
+		System.err.printf("%d expressions (%d errors) in %.3f s, %.0f expressions/s%n",
+				batch.lines(), batch.errors(), elapsed / 1e9, batch.lines() / (elapsed / 1e9));
+	}
+
+	// This method evaluates every line read from in.
+	public void evaluate(BufferedReader in) throws IOException {
+		String line;
+		while ((line = in.readLine()) != null) {
+			evaluateLine(line);
+		}
+		finish();
+	}
+
+	// This method evaluates every line of a file through memory-mapped windows.
+	public void evaluateFile(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				long length = Math.min(MAP_WINDOW, size - position);
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				boolean lastWindow = position + length == size;
+
+				int lineStart = 0;
+				int limit = (int) length;
+				for (int i = 0; i < limit; i++) {
+					if (buffer.get(i) == '\n') {
+						evaluateLine(buffer, lineStart, i);
+						lineStart = i + 1;
+					}
+				}
+
+				if (lastWindow) {
+					if (lineStart < limit) {
+						evaluateLine(buffer, lineStart, limit);
+					}
+					position = size;
+				} else if (lineStart == 0) {
+					throw new IOException("Line longer than " + MAP_WINDOW + " bytes at offset " + position);
+				} else {
+					// Remap starting at the partial line so it is read whole.
+					position += lineStart;
+				}
+			}
+		}
+		finish();
+	}
+
+	// This method copies one line out of a mapped buffer and evaluates it.
+	private void evaluateLine(MappedByteBuffer buffer, int start, int end) throws IOException {
+		if (end > start && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		int length = end - start;
+		if (lineBytes.length < length) {
+			lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+		}
+		buffer.get(start, lineBytes, 0, length);
+		evaluateLine(new String(lineBytes, 0, length, StandardCharsets.ISO_8859_1));
+	}
+
+	// This method evaluates one expression and writes its result line, or queues
+	// it for the next parallel block.
+	private void evaluateLine(String expression) throws IOException {
+		lines++;
+		if (parallel == null) {
+			writeResult(evaluateLine(expression, programs, stack, result));
+			return;
+		}
+		block[blockSize++] = expression;
+		if (blockSize == block.length) {
+			dispatchBlock();
+		}
+	}
+
+	// This method evaluates one expression and returns its output line. Errors
+	// are returned in place of the result so output lines stay aligned with input.
+	static String evaluateLine(String expression, RpnProgramCache programs, LongStack stack, RpnResult result) {
+		if (Metrics.ENABLED) {
+			return evaluateLineMeasured(expression, programs, stack, result);
+		}
+		try {
+			return programs.get(expression).evaluate(stack, result).toString();
+		} catch (IllegalArgumentException e) {
+			return "error: " + e.getMessage();
+		}
+	}
+
+	// This method is evaluateLine with the parse and evaluation times recorded.
+	private static String evaluateLineMeasured(String expression, RpnProgramCache programs, LongStack stack,
+			RpnResult result) {
+		long start = System.nanoTime();
+		RpnProgram program;
+		try {
+			program = programs.get(expression);
+		} catch (IllegalArgumentException e) {
+			Metrics.recordCalculation(System.nanoTime() - start, 0, false);
+			return "error: " + e.getMessage();
+		}
+		long parsed = System.nanoTime();
+		program.evaluate(stack, result);
+		Metrics.recordCalculation(parsed - start, System.nanoTime() - parsed, result.isOk());
+		return result.toString();
+	}
+
+	// This method starts the filled block on the parallel evaluator, then writes
+	// the previous block's results while the new one runs.
+	private void dispatchBlock() throws IOException {
+		ForkJoinTask<String[]> task = parallel.submit(block, blockSize);
+		writePending();
+		pending = task;
+		block = new String[BLOCK_SIZE];
+		blockSize = 0;
+	}
+
+	// This method waits for the in-flight block and writes its results in order.
+	private void writePending() throws IOException {
+		if (pending == null) {
+			return;
+		}
+		for (String result : pending.join()) {
+			writeResult(result);
+		}
+		pending = null;
+	}
+
+	// This method dispatches any partial block and drains all remaining output.
+	private void finish() throws IOException {
+		if (parallel == null) {
+			return;
+		}
+		if (blockSize > 0) {
+			dispatchBlock();
+		}
+		writePending();
+	}
+
+	// This method writes one result line.
+	private void writeResult(String result) throws IOException {
+		if (result.startsWith("error")) {
+			errors++;
+		}
+		out.write(result);
+		out.write('\n');
+	}
+
+	// This method returns the number of expressions evaluated so far.
+	public long lines() {
+		return lines;
+	}
+
+	// This method returns the number of expressions that produced an error.
+	public long errors() {
+		return errors;
+	}
+
+}
@@ -0,0 +1,112 @@
+//Description: Evaluates blocks of RPN expressions on a fork-join pool. A block
+// is split into chunks that are evaluated independently, each worker using its
+// own thread-confined LongStack and program cache, and the results are written
+// to an array indexed like the input so output order matches input order.
+//Date: 10/17/2026
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+public class RpnParallelEvaluator {
+	// Expressions per leaf task; small enough to balance, large enough to amortize forking.
+	private static final int CHUNK_SIZE = 2048;
+	private static final int CACHE_CAPACITY = 1 << 14;
+
+	private final ForkJoinPool pool;
+	private final ThreadLocal<LongStack> stacks = ThreadLocal.withInitial(LongStack::new);
+	private final ThreadLocal<RpnResult> resultHolders = ThreadLocal.withInitial(RpnResult::new);
+	private final ThreadLocal<RpnProgramCache> programs;
+
+	// Create an evaluator for RPN expressions that uses parallelism worker
+	// threads, or one per available processor when parallelism is 0 or less.
+	public RpnParallelEvaluator(int parallelism) {
+		this(parallelism, RpnProgram::compile);
+	}
+
+	// Create an evaluator for expressions compiled by compiler.
+	public RpnParallelEvaluator(int parallelism, Function<String, RpnProgram> compiler) {
+		programs = ThreadLocal.withInitial(() -> new RpnProgramCache(CACHE_CAPACITY, compiler));
+		if (parallelism <= 0) {
+			parallelism = Runtime.getRuntime().availableProcessors();
+		}
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	// This method returns the number of worker threads.
+	public int parallelism() {
+		return pool.getParallelism();
+	}
+
+	// This method evaluates the first count expressions and returns their output
+	// lines in input order.
+	public String[] evaluate(String[] expressions, int count) {
+		return submit(expressions, count).join();
+	}
+
+	// This method starts evaluating the first count expressions in the background.
+	// The caller must not modify the expressions array until the task completes.
+	public ForkJoinTask<String[]> submit(String[] expressions, int count) {
+		return pool.submit(new EvaluateBlock(expressions, count));
+	}
+
+	// This method stops the worker threads once submitted work has finished.
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	// Root task: allocates the result array and fans out over it.
+	@SuppressWarnings("serial") // Tasks are never serialized
+	private final class EvaluateBlock extends RecursiveTask<String[]> {
+		private final String[] expressions;
+		private final int count;
+
+		EvaluateBlock(String[] expressions, int count) {
+			this.expressions = expressions;
+			this.count = count;
+		}
+
+		@Override
+		protected String[] compute() {
+			String[] results = new String[count];
+			new EvaluateChunk(expressions, results, 0, count).invoke();
+			return results;
+		}
+	}
+
+	// Evaluates expressions[from, to) into results[from, to), splitting in half
+	// until the range is at most CHUNK_SIZE.
+	@SuppressWarnings("serial") // Tasks are never serialized
+	private final class EvaluateChunk extends RecursiveAction {
+		private final String[] expressions;
+		private final String[] results;
+		private final int from;
+		private final int to;
+
+		EvaluateChunk(String[] expressions, String[] results, int from, int to) {
+			this.expressions = expressions;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_SIZE) {
+				LongStack stack = stacks.get();
+				RpnResult result = resultHolders.get();
+				RpnProgramCache cache = programs.get();
+				for (int i = from; i < to; i++) {
+					results[i] = RpnBatch.evaluateLine(expressions[i], cache, stack, result);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new EvaluateChunk(expressions, results, from, middle),
+					new EvaluateChunk(expressions, results, middle, to));
+		}
+	}
+
+}
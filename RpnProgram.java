@@ -0,0 +1,381 @@
+//Description: A compiled Reverse Polish Notation expression. The expression text
+// is tokenized and checked once, then stored as a compact opcode array so it
+// can be evaluated any number of times without touching strings again.
+// Programs compiled from infix text (see InfixCompiler) may also contain the
+// unary OP_NEG and are allowed to work with negative values. Expressions may
+// name variables, such as "x y + 2 *", when the names are declared at compile
+// time; such programs are evaluated over columns of data by ColumnEvaluator.
+//Date: 10/17/2026
+
+import java.math.BigInteger;
+
+public final class RpnProgram {
+
+	// Opcodes. OP_PUSH is followed in the code array by its literal operand.
+	static final int OP_PUSH = 0;
+	static final int OP_ADD = 1;
+	static final int OP_SUB = 2;
+	static final int OP_MUL = 3;
+	static final int OP_DIV = 4;
+	// Unary minus; only produced by InfixCompiler.
+	static final int OP_NEG = 5;
+	// OP_VAR is followed by the index of the variable in the declared names.
+	static final int OP_VAR = 6;
+
+	private static final String[] NO_VARIABLES = new String[0];
+	private static final long[] NO_VALUES = new long[0];
+
+	private final int[] code;
+	private final int maxDepth;
+	private final String[] variables;
+	// Exact evaluations so far, and the bytecode version once the count reaches
+	// ExpressionJit.THRESHOLD. The count is a hint, so racy updates are fine.
+	private int evaluations;
+	private volatile ExpressionJit.LongCode compiled;
+	// RPN input keeps the calculator's rule that operands must not be negative;
+	// infix input has unary minus, so negative values are ordinary there.
+	private final boolean allowNegative;
+
+	private RpnProgram(int[] code, int maxDepth, boolean allowNegative, String[] variables) {
+		this.code = code;
+		this.maxDepth = maxDepth;
+		this.allowNegative = allowNegative;
+		this.variables = variables;
+	}
+
+	// This method wraps code produced by another front end. The code must be well
+	// formed: every operator has its operands and one value is left at the end.
+	static RpnProgram of(int[] code, int length, int maxDepth, boolean allowNegative, String[] variables) {
+		int[] compact = new int[length];
+		System.arraycopy(code, 0, compact, 0, length);
+		return new RpnProgram(compact, maxDepth, allowNegative, variables.clone());
+	}
+
+	// This method compiles an expression such as "1 2 + 4 3 - / 5 *". Tokens are
+	// separated by spaces. A malformed expression (unknown token, missing
+	// operand or leftover operands) throws an IllegalArgumentException.
+	public static RpnProgram compile(String expression) {
+		return compile(expression, NO_VARIABLES);
+	}
+
+	// This method compiles an expression that may use the named variables, such
+	// as "x y + 2 *" with variables "x" and "y". Variable i reads column i when
+	// the program is evaluated by ColumnEvaluator.
+	public static RpnProgram compile(String expression, String... variables) {
+		// Every operand takes at least one character and two code slots.
+		int[] code = new int[2 * expression.length() + 2];
+		int length = 0;
+		int depth = 0;
+		int maxDepth = 0;
+
+		int i = 0;
+		int end = expression.length();
+		while (i < end) {
+			if (expression.charAt(i) == ' ') {
+				i++;
+				continue;
+			}
+			int start = i;
+			while (i < end && expression.charAt(i) != ' ') {
+				i++;
+			}
+
+			int opcode = operatorCode(expression, start, i);
+			if (opcode != OP_PUSH) {
+				// Every operator pops two operands and pushes one result.
+				if (depth < 2) {
+					throw new IllegalArgumentException("Missing operand for '" + expression.charAt(start) + "'");
+				}
+				depth--;
+				code[length++] = opcode;
+			} else {
+				int variable = isIdentifierStart(expression.charAt(start)) && variables.length > 0
+						? variableIndex(variables, expression, start, i) : -1;
+				if (variable >= 0) {
+					code[length++] = OP_VAR;
+					code[length++] = variable;
+				} else {
+					code[length++] = OP_PUSH;
+					code[length++] = parseLiteral(expression, start, i);
+				}
+				depth++;
+				maxDepth = Math.max(maxDepth, depth);
+			}
+		}
+
+		// Our verification check that at the end of our operations we have
+		// only 1 item remaining on the stack.
+		if (depth != 1) {
+			throw new IllegalArgumentException("Expression must leave exactly one value, found " + depth);
+		}
+
+		return of(code, length, maxDepth, false, variables);
+	}
+
+	static boolean isIdentifierStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+
+	static boolean isIdentifierPart(char c) {
+		return isIdentifierStart(c) || (c >= '0' && c <= '9');
+	}
+
+	// This method returns the index of the variable named by expression[start,
+	// end). An undeclared name throws an IllegalArgumentException.
+	static int variableIndex(String[] variables, String expression, int start, int end) {
+		for (int v = 0; v < variables.length; v++) {
+			if (variables[v].length() == end - start && expression.startsWith(variables[v], start)) {
+				return v;
+			}
+		}
+		throw new IllegalArgumentException("Unknown variable '" + expression.substring(start, end) + "'");
+	}
+
+	// This method returns the operator opcode for a token, or OP_PUSH when the
+	// token is not one of the four operators.
+	private static int operatorCode(String expression, int start, int end) {
+		if (end - start != 1) {
+			return OP_PUSH;
+		}
+		switch (expression.charAt(start)) {
+			case '+':
+				return OP_ADD;
+			case '-':
+				return OP_SUB;
+			case '*':
+				return OP_MUL;
+			case '/':
+				return OP_DIV;
+			default:
+				return OP_PUSH;
+		}
+	}
+
+	// This method parses an integer literal directly from the expression text,
+	// with the same accepted range as Integer.parseInt.
+	private static int parseLiteral(String expression, int start, int end) {
+		try {
+			return Integer.parseInt(expression, start, end, 10);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid operand '" + expression.substring(start, end) + "'");
+		}
+	}
+
+	// This method returns the deepest the operand stack gets while evaluating.
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	// This method checks whether operands may be negative.
+	public boolean allowsNegative() {
+		return allowNegative;
+	}
+
+	// This method returns the names of the variables, in column order.
+	public String[] variables() {
+		return variables.clone();
+	}
+
+	// This method returns the opcode array; callers must not modify it.
+	int[] code() {
+		return code;
+	}
+
+	// This method rejects a scalar evaluation of a program that reads variables.
+	private void requireNoVariables() {
+		if (variables.length > 0) {
+			throw new IllegalStateException("Expression uses variables; evaluate it with ColumnEvaluator");
+		}
+	}
+
+	// This method evaluates the program on the given stack and returns the result,
+	// or -1 on an error (negative operand, division by zero), matching the
+	// calculator's existing convention. The stack is cleared first and is left
+	// empty afterwards. For programs that allow negative values -1 can also be a
+	// genuine result, so those should use the exact evaluate below.
+	public int evaluate(IntStack stack) {
+		requireNoVariables();
+		stack.clear();
+		int pc = 0;
+		while (pc < code.length) {
+			int opcode = code[pc++];
+			if (opcode == OP_PUSH) {
+				stack.push(code[pc++]);
+				continue;
+			}
+			if (opcode == OP_NEG) {
+				stack.push(-stack.pop());
+				continue;
+			}
+			int operand2 = stack.pop();
+			int operand1 = stack.pop();
+			// Verify if we have any negative operands.
+			if (!allowNegative && (operand1 < 0 || operand2 < 0)) {
+				stack.clear();
+				return -1;
+			}
+			if (opcode == OP_DIV && operand2 == 0) {
+				stack.clear();
+				return -1;
+			}
+			int result = apply(opcode, operand1, operand2);
+			if (!allowNegative && result == -1) {
+				stack.clear();
+				return -1;
+			}
+			stack.push(result);
+		}
+		return stack.pop();
+	}
+
+	// This method performs a single arithmetic operation.
+	private static int apply(int opcode, int operand1, int operand2) {
+		switch (opcode) {
+			case OP_ADD:
+				return operand1 + operand2;
+			case OP_SUB:
+				return operand1 - operand2;
+			case OP_MUL:
+				return operand1 * operand2;
+			case OP_DIV:
+				if (operand2 == 0) {
+					return -1;
+				}
+				return operand1 / operand2;
+			default:
+				return -1;
+		}
+	}
+
+	// This method evaluates the program in exact mode and stores the outcome in
+	// result, which is also returned. Arithmetic is done in long with overflow
+	// checks; only if a value overflows is the program re-run with BigInteger, so
+	// expressions whose values fit in a long allocate nothing. Negative operands
+	// and division by zero are reported through the result's status.
+	public RpnResult evaluate(LongStack stack, RpnResult result) {
+		requireNoVariables();
+		ExpressionJit.LongCode jit = compiled;
+		if (jit != null) {
+			try {
+				return result.set(jit.evaluate(NO_VALUES));
+			} catch (ArithmeticException e) {
+				// The interpreter below reports the error or promotes to BigInteger.
+			}
+		} else if (ExpressionJit.ENABLED && ++evaluations == ExpressionJit.THRESHOLD) {
+			compiled = ExpressionJit.compileLong(this);
+		}
+
+		stack.clear();
+		int pc = 0;
+		try {
+			while (pc < code.length) {
+				int opcode = code[pc++];
+				if (opcode == OP_PUSH) {
+					stack.push(code[pc++]);
+					continue;
+				}
+				if (opcode == OP_NEG) {
+					stack.push(Math.negateExact(stack.pop()));
+					continue;
+				}
+				long operand2 = stack.pop();
+				long operand1 = stack.pop();
+				if (!allowNegative && (operand1 < 0 || operand2 < 0)) {
+					stack.clear();
+					return result.fail(RpnResult.Status.NEGATIVE_OPERAND);
+				}
+				if (opcode == OP_DIV && operand2 == 0) {
+					stack.clear();
+					return result.fail(RpnResult.Status.DIVISION_BY_ZERO);
+				}
+				stack.push(applyExact(opcode, operand1, operand2));
+			}
+		} catch (ArithmeticException overflow) {
+			stack.clear();
+			return evaluateBig(result);
+		}
+		return result.set(stack.pop());
+	}
+
+	// This method performs a single arithmetic operation, throwing
+	// ArithmeticException if the result does not fit in a long.
+	private static long applyExact(int opcode, long operand1, long operand2) {
+		switch (opcode) {
+			case OP_ADD:
+				return Math.addExact(operand1, operand2);
+			case OP_SUB:
+				return Math.subtractExact(operand1, operand2);
+			case OP_MUL:
+				return Math.multiplyExact(operand1, operand2);
+			default:
+				// Long.MIN_VALUE / -1 is the one quotient that overflows.
+				if (operand1 == Long.MIN_VALUE && operand2 == -1) {
+					throw new ArithmeticException("long overflow");
+				}
+				return operand1 / operand2;
+		}
+	}
+
+	// This method re-evaluates the program at arbitrary width after a long overflow.
+	private RpnResult evaluateBig(RpnResult result) {
+		Stack<BigInteger> stack = new Stack<>();
+		int pc = 0;
+		while (pc < code.length) {
+			int opcode = code[pc++];
+			if (opcode == OP_PUSH) {
+				stack.push(BigInteger.valueOf(code[pc++]));
+				continue;
+			}
+			if (opcode == OP_NEG) {
+				stack.push(stack.pop().negate());
+				continue;
+			}
+			BigInteger operand2 = stack.pop();
+			BigInteger operand1 = stack.pop();
+			if (!allowNegative && (operand1.signum() < 0 || operand2.signum() < 0)) {
+				return result.fail(RpnResult.Status.NEGATIVE_OPERAND);
+			}
+			switch (opcode) {
+				case OP_ADD:
+					stack.push(operand1.add(operand2));
+					break;
+				case OP_SUB:
+					stack.push(operand1.subtract(operand2));
+					break;
+				case OP_MUL:
+					stack.push(operand1.multiply(operand2));
+					break;
+				default:
+					if (operand2.signum() == 0) {
+						return result.fail(RpnResult.Status.DIVISION_BY_ZERO);
+					}
+					stack.push(operand1.divide(operand2));
+			}
+		}
+		return result.set(stack.pop());
+	}
+
+	// This method renders the program back to space-separated RPN text.
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		int pc = 0;
+		while (pc < code.length) {
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			int opcode = code[pc++];
+			if (opcode == OP_PUSH) {
+				sb.append(code[pc++]);
+			} else if (opcode == OP_NEG) {
+				sb.append("neg");
+			} else if (opcode == OP_VAR) {
+				sb.append(variables[code[pc++]]);
+			} else {
+				sb.append("?+-*/".charAt(opcode));
+			}
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,56 @@
+//Description: A least-recently-used cache of compiled RPN programs keyed by the
+// expression text, so an expression that is evaluated repeatedly is only
+// tokenized and checked the first time it is seen. The compiler is RPN by
+// default; a cache built with InfixCompiler::compile holds infix programs.
+//Date: 10/17/2026
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class RpnProgramCache {
+	private final int capacity;
+	private final Function<String, RpnProgram> compiler;
+	private final LinkedHashMap<String, RpnProgram> programs;
+
+	// Create a cache that holds at most capacity compiled RPN programs.
+	public RpnProgramCache(int capacity) {
+		this(capacity, RpnProgram::compile);
+	}
+
+	// Create a cache that holds at most capacity programs built by compiler.
+	public RpnProgramCache(int capacity, Function<String, RpnProgram> compiler) {
+		this.capacity = capacity;
+		this.compiler = compiler;
+		// Access order makes iteration order least-recently-used first.
+		this.programs = new LinkedHashMap<String, RpnProgram>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RpnProgram> eldest) {
+				return size() > RpnProgramCache.this.capacity;
+			}
+		};
+	}
+
+	// This method returns the compiled program for an expression, compiling and
+	// caching it on a miss. Malformed expressions throw IllegalArgumentException
+	// and are not cached.
+	public synchronized RpnProgram get(String expression) {
+		RpnProgram program = programs.get(expression);
+		if (program == null) {
+			program = compiler.apply(expression);
+			programs.put(expression, program);
+		}
+		return program;
+	}
+
+	// This method returns the number of cached programs.
+	public synchronized int size() {
+		return programs.size();
+	}
+
+	// This method removes every cached program.
+	public synchronized void clear() {
+		programs.clear();
+	}
+
+}
@@ -0,0 +1,101 @@
+//Description: The outcome of evaluating an RPN program in exact mode. It holds
+// either a value or an error status, so no result value has to be reserved as
+// an error sentinel. Values that fit in a long are stored unboxed; a BigInteger
+// is only kept when the evaluation overflowed a long. A result object is meant
+// to be reused across evaluations so the common path allocates nothing.
+//Date: 10/17/2026
+
+import java.math.BigInteger;
+
+public final class RpnResult {
+
+	// Why an evaluation succeeded or failed.
+	public enum Status {
+		OK("ok"),
+		NEGATIVE_OPERAND("negative operand"),
+		DIVISION_BY_ZERO("division by zero");
+
+		private final String description;
+
+		Status(String description) {
+			this.description = description;
+		}
+
+		// This method returns a short human-readable description.
+		public String description() {
+			return description;
+		}
+	}
+
+	private Status status = Status.OK;
+	private long value;
+	private BigInteger bigValue;
+
+	// This method records a successful result that fits in a long.
+	RpnResult set(long value) {
+		this.status = Status.OK;
+		this.value = value;
+		this.bigValue = null;
+		return this;
+	}
+
+	// This method records a successful result, keeping it as a long if it fits.
+	RpnResult set(BigInteger value) {
+		if (value.bitLength() < Long.SIZE) {
+			return set(value.longValue());
+		}
+		this.status = Status.OK;
+		this.value = 0;
+		this.bigValue = value;
+		return this;
+	}
+
+	// This method records an error.
+	RpnResult fail(Status status) {
+		this.status = status;
+		this.value = 0;
+		this.bigValue = null;
+		return this;
+	}
+
+	// This method returns the status of the last evaluation.
+	public Status status() {
+		return status;
+	}
+
+	// This method checks if the last evaluation produced a value.
+	public boolean isOk() {
+		return status == Status.OK;
+	}
+
+	// This method checks if the value needed more than 64 bits.
+	public boolean isBig() {
+		return bigValue != null;
+	}
+
+	// This method returns the value when it fits in a long.
+	public long longValue() {
+		if (!isOk() || isBig()) {
+			throw new IllegalStateException("No long value: " + this);
+		}
+		return value;
+	}
+
+	// This method returns the value at any width.
+	public BigInteger bigValue() {
+		if (!isOk()) {
+			throw new IllegalStateException("No value: " + this);
+		}
+		return bigValue != null ? bigValue : BigInteger.valueOf(value);
+	}
+
+	// This method returns the value, or "error: " followed by the reason.
+	@Override
+	public String toString() {
+		if (!isOk()) {
+			return "error: " + status.description();
+		}
+		return bigValue != null ? bigValue.toString() : Long.toString(value);
+	}
+
+}
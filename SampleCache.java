@@ -0,0 +1,272 @@
+//Description: A bounded cache of samples f(x) for one function, keyed by the
+// exact bits of the double abscissa. Refining a fixed-step rule from n to 2n
+// subintervals lands on every old grid point again with bit-identical x
+// (h/2 is computed exactly), so a job that follows an earlier one over the
+// same interval only pays for the new midpoints. Each entry is a key and the
+// bits of its sample stored side by side in one long[], with linear probing,
+// so nothing is boxed and a probe reads one cache line. When the cache is full
+// the CLOCK algorithm evicts an entry that has not been read since the hand
+// last passed it. The cache is shared by every job on one function, so it is
+// split into independently locked stripes by key; concurrent jobs only wait
+// for each other when they touch the same stripe at the same moment.
+// memoize() gives each job its own wrapper with private hit and miss counts.
+//Date: 10/17/2026
+
+import java.util.function.DoubleUnaryOperator;
+
+public class SampleCache {
+
+    // Marks a free slot. It is a NaN with a payload no arithmetic produces;
+    // an abscissa with exactly these bits is simply never cached.
+    private static final long EMPTY = 0x7FF0DEADBEEFCAFEL;
+    // Tables start small and double up to twice their share of the capacity
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int capacity;
+
+    // Constructor for a cache holding at most capacity samples
+    public SampleCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int count = Math.min(STRIPES, Integer.highestOneBit(capacity));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the capacity so the stripes add up to exactly capacity
+            stripes[i] = new Stripe(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+        this.stripeMask = count - 1;
+        this.capacity = capacity;
+    }
+
+    // Method to mix every bit of a key into the high bits, which pick the
+    // stripe and the home slot within it
+    private static long mix(long key) {
+        return (key ^ (key >>> 32)) * 0x9E3779B97F4A7C15L;
+    }
+
+    private Stripe stripe(long mixed) {
+        return stripes[(int) (mixed >>> 32) & stripeMask];
+    }
+
+    // Method to get the number of cached samples
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Method to get the maximum number of cached samples
+    public int capacity() {
+        return capacity;
+    }
+
+    // Method to drop every cached sample
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    // One independently locked part of the cache
+    private static final class Stripe {
+        // Slot i holds its key at 2i and the bits of its sample at 2i + 1;
+        // referenced marks samples read since the clock hand last passed them
+        private long[] table;
+        private boolean[] referenced;
+        private int mask;
+        private int shift;
+        private final int capacity;
+        private final int maxSlots;
+        private int size;
+        private int hand;
+
+        Stripe(int capacity) {
+            // Keep the table at most half full so probe runs stay short
+            this.maxSlots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.capacity = capacity;
+            allocate(Math.min(INITIAL_SLOTS, maxSlots));
+        }
+
+        private void allocate(int slots) {
+            table = new long[2 * slots];
+            for (int i = 0; i < table.length; i += 2) {
+                table[i] = EMPTY;
+            }
+            referenced = new boolean[slots];
+            mask = slots - 1;
+            shift = 64 - Integer.numberOfTrailingZeros(slots);
+        }
+
+        // Method to pick the home slot of a key from the top bits of its mix
+        private int slot(long key) {
+            return (int) (mix(key) >>> shift);
+        }
+
+        // Method to find the slot holding key, or the free slot where it would go
+        private int find(long key) {
+            int i = slot(key);
+            while (table[2 * i] != key && table[2 * i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        // Method to look up a sample; found is set to whether x was cached
+        synchronized double get(long key, boolean[] found) {
+            int i = find(key);
+            if (table[2 * i] == EMPTY) {
+                found[0] = false;
+                return 0;
+            }
+            if (!referenced[i]) {
+                referenced[i] = true;
+            }
+            found[0] = true;
+            return Double.longBitsToDouble(table[2 * i + 1]);
+        }
+
+        // Method to store a sample, evicting one if the stripe is full
+        synchronized void put(long key, double value) {
+            if (key == EMPTY) {
+                return;
+            }
+            int i = find(key);
+            if (table[2 * i] == EMPTY) {
+                if (size == capacity || 2 * (size + 1) > referenced.length) {
+                    if (size == capacity) {
+                        evict();
+                    } else {
+                        grow();
+                    }
+                    // Eviction and growth move entries, so find the free slot again
+                    i = find(key);
+                }
+                table[2 * i] = key;
+                referenced[i] = false;
+                size++;
+            }
+            table[2 * i + 1] = Double.doubleToRawLongBits(value);
+        }
+
+        // Method to double the table and reinsert every entry
+        private void grow() {
+            long[] oldTable = table;
+            boolean[] oldReferenced = referenced;
+            allocate(referenced.length * 2);
+            hand = 0;
+            for (int j = 0; j < oldReferenced.length; j++) {
+                long key = oldTable[2 * j];
+                if (key != EMPTY) {
+                    int i = find(key);
+                    table[2 * i] = key;
+                    table[2 * i + 1] = oldTable[2 * j + 1];
+                    referenced[i] = oldReferenced[j];
+                }
+            }
+        }
+
+        // Method to advance the clock hand to an unreferenced entry and remove it
+        private void evict() {
+            while (true) {
+                if (table[2 * hand] != EMPTY) {
+                    if (!referenced[hand]) {
+                        remove(hand);
+                        return;
+                    }
+                    referenced[hand] = false;
+                }
+                hand = (hand + 1) & mask;
+            }
+        }
+
+        // Method to delete a slot and shift later entries of its probe run back,
+        // so lookups never stop early at the hole
+        private void remove(int hole) {
+            int i = hole;
+            while (true) {
+                i = (i + 1) & mask;
+                long key = table[2 * i];
+                if (key == EMPTY) {
+                    break;
+                }
+                int home = slot(key);
+                // Move the entry if the hole lies between its home slot and i
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    table[2 * hole] = key;
+                    table[2 * hole + 1] = table[2 * i + 1];
+                    referenced[hole] = referenced[i];
+                    hole = i;
+                }
+            }
+            table[2 * hole] = EMPTY;
+            size--;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            allocate(Math.min(INITIAL_SLOTS, maxSlots));
+            size = 0;
+            hand = 0;
+        }
+    }
+
+    // Method to wrap f so its samples are read from and added to this cache.
+    // The wrapper counts its own hits and misses and is meant for one job on
+    // one thread; f must be the function this cache belongs to.
+    public Memo memoize(DoubleUnaryOperator f) {
+        return new Memo(f);
+    }
+
+    // A function that answers from the cache and calls f only on a miss
+    public final class Memo implements DoubleUnaryOperator {
+        private final DoubleUnaryOperator f;
+        private final boolean[] found = new boolean[1];
+        private long hits;
+        private long misses;
+
+        private Memo(DoubleUnaryOperator f) {
+            this.f = f;
+        }
+
+        // Method to evaluate f at x, reusing a cached sample when there is one
+        @Override
+        public double applyAsDouble(double x) {
+            long key = Double.doubleToRawLongBits(x);
+            Stripe stripe = stripe(mix(key));
+            double y = stripe.get(key, found);
+            if (found[0]) {
+                hits++;
+                return y;
+            }
+            misses++;
+            y = f.applyAsDouble(x);
+            stripe.put(key, y);
+            return y;
+        }
+
+        // Method to get the number of samples served from the cache
+        public long hits() {
+            return hits;
+        }
+
+        // Method to get the number of samples that called f
+        public long misses() {
+            return misses;
+        }
+
+        // Method to get the fraction of samples served from the cache
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
@@ -1,16 +1,14 @@
-//Description: This is a generic stack class.
+//Description: This is a generic stack class. Nodes are never changed once
+// created (push links a new node in front, pop only moves head), so stacks
+// can share their nodes: snapshot() and fork() take O(1) and copy nothing, and
+// a Snapshot is an immutable stack whose push and pop return new snapshots.
 //Author: Amar Sahbazovic
 //Date: 10/3/2023
 
 public class Stack<T> {
-	private class Node<T> {
-		private T item;
-		private Node<T> next;
-
-		public Node() {
-			item = null;
-			next = null;
-		}
+	private static final class Node<T> {
+		private final T item;
+		private final Node<T> next;
 
 		public Node(T newItem, Node<T> newNext) {
 			item = newItem;
@@ -26,6 +24,13 @@ public class Stack<T> {
 
 	}
 
+	// Create a stack holding the items of a snapshot. The nodes are shared, so
+	// this takes O(1), and pushing or popping here does not change the snapshot.
+	public Stack(Snapshot<T> snapshot) {
+		head = snapshot.head;
+		size = snapshot.size;
+	}
+
 	// This method pushes an item onto the stack.
 	public void push(T itemName) {
 		Node<T> newNode = new Node<>(itemName, head);
@@ -70,4 +75,76 @@ public class Stack<T> {
 		size = 0;
 	}
 
-}
\ No newline at end of file
+	// This method returns an immutable view of the stack as it is now. Later
+	// pushes and pops on this stack do not change the snapshot.
+	public Snapshot<T> snapshot() {
+		return head == null ? Snapshot.empty() : new Snapshot<>(head, size);
+	}
+
+	// This method returns an independent stack with the same items in O(1).
+	public Stack<T> fork() {
+		Stack<T> copy = new Stack<>();
+		copy.head = head;
+		copy.size = size;
+		return copy;
+	}
+
+	// An immutable stack. push and pop return a new snapshot that shares every
+	// node below the top with this one, so a backtracking parser can keep one
+	// snapshot per alternative without copying.
+	public static final class Snapshot<T> {
+		private static final Snapshot<?> EMPTY = new Snapshot<>(null, 0);
+
+		private final Node<T> head;
+		private final int size;
+
+		private Snapshot(Node<T> head, int size) {
+			this.head = head;
+			this.size = size;
+		}
+
+		// This method returns the empty snapshot.
+		@SuppressWarnings("unchecked")
+		public static <T> Snapshot<T> empty() {
+			return (Snapshot<T>) EMPTY;
+		}
+
+		// This method returns a snapshot with item on top of this one.
+		public Snapshot<T> push(T item) {
+			return new Snapshot<>(new Node<>(item, head), size + 1);
+		}
+
+		// This method returns the snapshot below the top item, or this snapshot
+		// if it is empty.
+		public Snapshot<T> pop() {
+			if (head == null) {
+				return this;
+			}
+			return head.next == null ? empty() : new Snapshot<>(head.next, size - 1);
+		}
+
+		// This method returns the top item, or null if the snapshot is empty.
+		public T top() {
+			if (head == null) {
+				return null;
+			}
+			return head.item;
+		}
+
+		// This method returns the number of elements in the snapshot.
+		public int size() {
+			return size;
+		}
+
+		// This method checks if the snapshot has no elements.
+		public boolean isEmpty() {
+			return size == 0;
+		}
+
+		// This method returns a mutable stack starting from this snapshot in O(1).
+		public Stack<T> fork() {
+			return new Stack<>(this);
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+//Description: The Washington letter cipher as a two-way substitution table.
+// Plain letter 'A' + i is written as decipherArray[i] (the second column of the
+// WashingtonCipher file). Both directions are precomputed into 256-entry byte
+// tables covering ASCII and Latin-1, with every character outside the cipher
+// mapping to itself, so encrypting or decrypting a buffer is one table load per
+// character with no search and no branches on the letter range.
+//Date: 10/17/2026
+
+public final class SubstitutionCipher {
+	private final byte[] forward = new byte[256];
+	private final byte[] inverse = new byte[256];
+
+	// Create the cipher where letter 'A' + i is replaced by decipherArray[i].
+	public SubstitutionCipher(char[] decipherArray) {
+		for (int c = 0; c < 256; c++) {
+			forward[c] = (byte) c;
+			inverse[c] = (byte) c;
+		}
+		boolean[] inverseSet = new boolean[256];
+		for (int i = 0; i < 26 && i < decipherArray.length; i++) {
+			char cipherChar = decipherArray[i];
+			forward['A' + i] = (byte) cipherChar;
+			// Only cipher letters are decrypted, and the first letter mapping to a
+			// cipher character wins, as the old linear search did.
+			if (cipherChar >= 'A' && cipherChar <= 'Z' && !inverseSet[cipherChar]) {
+				inverse[cipherChar] = (byte) ('A' + i);
+				inverseSet[cipherChar] = true;
+			}
+		}
+	}
+
+	// This method encrypts a single character.
+	public char encipher(char c) {
+		return c < 256 ? (char) (forward[c] & 0xFF) : c;
+	}
+
+	// This method decrypts a single character.
+	public char decipher(char c) {
+		return c < 256 ? (char) (inverse[c] & 0xFF) : c;
+	}
+
+	// This method encrypts len characters of buffer starting at off, in place.
+	public void encipher(char[] buffer, int off, int len) {
+		transform(forward, buffer, off, len);
+	}
+
+	// This method decrypts len characters of buffer starting at off, in place.
+	public void decipher(char[] buffer, int off, int len) {
+		transform(inverse, buffer, off, len);
+	}
+
+	// This method encrypts len bytes of buffer starting at off, in place.
+	public void encipher(byte[] buffer, int off, int len) {
+		transform(forward, buffer, off, len);
+	}
+
+	// This method decrypts len bytes of buffer starting at off, in place.
+	public void decipher(byte[] buffer, int off, int len) {
+		transform(inverse, buffer, off, len);
+	}
+
+	private static void transform(byte[] table, char[] buffer, int off, int len) {
+		for (int i = off, end = off + len; i < end; i++) {
+			char c = buffer[i];
+			if (c < 256) {
+				buffer[i] = (char) (table[c] & 0xFF);
+			}
+		}
+	}
+
+	private static void transform(byte[] table, byte[] buffer, int off, int len) {
+		for (int i = off, end = off + len; i < end; i++) {
+			buffer[i] = table[buffer[i] & 0xFF];
+		}
+	}
+
+}
@@ -7,25 +7,37 @@ import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYAreaRenderer;
 import org.jfree.ui.ApplicationFrame;
 import org.jfree.ui.RefineryUtilities;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 
-import org.mariuszgromada.math.mxparser.Expression;
-import org.mariuszgromada.math.mxparser.Argument;
 import org.mariuszgromada.math.mxparser.License;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.util.EnumSet;
 import java.util.Scanner;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
 // Main class for the numerical integration calculator, extending ApplicationFrame
 public class calcproject extends ApplicationFrame {
 
+    private static final long serialVersionUID = 1L;
+
     // Constants for default and minimum font size
     private static final int DEFAULT_FONT_SIZE = 12;
     private static final int MIN_FONT_SIZE = 8;
 
+    // Subinterval count from which integration is split across all cores
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    // Width of the chart in pixels, which also caps the number of plotted buckets
+    private static final int PLOT_WIDTH = 800;
+
+    // Error target for the adaptive Simpson result. It runs on one thread after
+    // the fixed rules, with at most as many evaluations as they spent and never
+    // more than ADAPTIVE_MAX_EVALUATIONS, which also bounds its queue of segments
+    private static final double ADAPTIVE_TOLERANCE = 1e-10;
+    private static final int ADAPTIVE_MAX_EVALUATIONS = 1 << 16;
+
     // Constructor for the main class
     public calcproject(String title) {
         super(title);
@@ -57,26 +69,16 @@ public class calcproject extends ApplicationFrame {
         labelPanel.setFont(adjustedFont);
     }
 
-    // Method to create a JFreeChart for a given function and interval
-    public JFreeChart createChart(
-            Function<Double, Double> f,
+    // Method to create a JFreeChart for a given function and interval. The plot is
+    // sampled independently of the integration grid: at most two points per pixel
+    // column, recomputed for the visible range when the chart is zoomed or panned
+    public static JFreeChart createChart(
+            DoubleUnaryOperator f,
             double a,
-            double b,
-            int n) {
-
-        // Create a series for the function data
-        XYSeries functionSeries = new XYSeries("Function");
-
-        double h = (b - a) / n;
-        double x = a;
-        for (int i = 0; i <= n; i++) {
-            double y = f.apply(x);
-            functionSeries.add(x, y);
-            x += h;
-        }
+            double b) {
 
-        // Create a dataset and chart using JFreeChart
-        XYSeriesCollection dataset = new XYSeriesCollection(functionSeries);
+        // Create a dataset that samples f on demand for the visible range
+        DecimatedFunctionDataset dataset = new DecimatedFunctionDataset("Function", f, a, b, PLOT_WIDTH);
 
         JFreeChart chart = ChartFactory.createXYAreaChart(
                 "Function Plot",
@@ -98,71 +100,52 @@ public class calcproject extends ApplicationFrame {
         plot.setDomainPannable(true);
         plot.setRangePannable(true);
 
+        // Fix the domain to [a, b] and resample whenever it is zoomed or panned
+        plot.getDomainAxis().setRange(a, b);
+        plot.getDomainAxis().addChangeListener(dataset);
+
         return chart;
     }
 
     // Method for midpoint approximation of definite integral
-    public static double midpointApproximation(Function<Double, Double> f, double a, double b, int n) {
-        double h = (b - a) / n;
-        double sum = 0;
-        for (int i = 0; i < n; i++) {
-            double x = a + (i + 0.5) * h;
-            sum += h * f.apply(x);
-        }
-        return sum;
+    public static double midpointApproximation(DoubleUnaryOperator f, double a, double b, int n) {
+        return IntegrationEngine.integrate(f, a, b, n, IntegrationRule.MIDPOINT);
     }
 
     // Method for left sum approximation of definite integral
-    public static double leftSumApproximation(Function<Double, Double> f, double a, double b, int n) {
-        double h = (b - a) / n;
-        double sum = 0;
-        for (int i = 0; i < n; i++) {
-            double x0 = a + i * h;
-            double x1 = a + (i + 1) * h;
-            sum += f.apply(x0) * (x1 - x0);
-        }
-        return sum;
+    public static double leftSumApproximation(DoubleUnaryOperator f, double a, double b, int n) {
+        return IntegrationEngine.integrate(f, a, b, n, IntegrationRule.LEFT_SUM);
     }
 
     // Method for right sum approximation of definite integral
-    public static double rightSumApproximation(Function<Double, Double> f, double a, double b, int n) {
-        double h = (b - a) / n;
-        double sum = 0;
-        for (int i = 0; i < n; i++) {
-            double x0 = a + i * h;
-            double x1 = a + (i + 1) * h;
-            sum += f.apply(x1) * (x1 - x0);
-        }
-        return sum;
+    public static double rightSumApproximation(DoubleUnaryOperator f, double a, double b, int n) {
+        return IntegrationEngine.integrate(f, a, b, n, IntegrationRule.RIGHT_SUM);
     }
 
     // Method for trapezoid approximation of definite integral
-    public static double trapezoidApproximation(Function<Double, Double> f, double a, double b, int n) {
-        double h = (b - a) / n;
-        double sum = (f.apply(a) + f.apply(b)) / 2;
-        for (int i = 1; i < n; i++) {
-            double x = a + i * h;
-            sum += f.apply(x);
-        }
-        return h * sum;
+    public static double trapezoidApproximation(DoubleUnaryOperator f, double a, double b, int n) {
+        return IntegrationEngine.integrate(f, a, b, n, IntegrationRule.TRAPEZOID);
     }
 
     // Method for Simpson's rule approximation of definite integral
-    public static double simpsonApproximation(Function<Double, Double> f, double a, double b, int n) {
-        double h = (b - a) / n;
-        double sum = f.apply(a) + f.apply(b);
-        for (int i = 1; i < n; i++) {
-            double x = a + i * h;
-            sum += (i % 2 == 0) ? 2 * f.apply(x) : 4 * f.apply(x);
-        }
-        return h * sum / 3;
+    public static double simpsonApproximation(DoubleUnaryOperator f, double a, double b, int n) {
+        return IntegrationEngine.integrate(f, a, b, n, IntegrationRule.SIMPSON);
     }
 
     // Main method for the numerical integration calculator
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // Confirm non-commercial use
         License.iConfirmNonCommercialUse("JagodaOP");
 
+        // "--headless [file]" runs integration jobs from a file or stdin without a
+        // window. This class is a JFrame, so AWT is already loaded here; run
+        // IntegrationService directly, or pass -Djava.awt.headless=true, on a
+        // machine with a display
+        if (args.length > 0 && args[0].equals("--headless")) {
+            IntegrationService.run(args);
+            return;
+        }
+
         // Scanner for user input
         Scanner scanner = new Scanner(System.in);
 
@@ -172,11 +155,13 @@ public class calcproject extends ApplicationFrame {
         System.out.print("Enter the function f(x): ");
         String functionStr = scanner.nextLine();
 
-        // Convert the function string to a function using mxparser
-        Function<Double, Double> f = x -> {
-            Expression expression = new Expression(functionStr, new Argument("x", x));
-            return expression.calculate();
-        };
+        // Parse the function string once with mxparser; each call only updates x
+        CompiledFunction f = new CompiledFunction(functionStr);
+        if (!f.isValid()) {
+            System.out.println("Invalid function: " + f.errorMessage());
+            scanner.close();
+            return;
+        }
 
         System.out.print("Enter the lower limit of integration (a): ");
         double a = scanner.nextDouble();
@@ -188,19 +173,29 @@ public class calcproject extends ApplicationFrame {
         int n = scanner.nextInt();
         System.out.println();
 
-        // Perform numerical approximations
-        double midpointResult = midpointApproximation(f, a, b, n);
-        double leftSumResult = leftSumApproximation(f, a, b, n);
-        double rightSumResult = rightSumApproximation(f, a, b, n);
-        double trapezoidResult = trapezoidApproximation(f, a, b, n);
-        double simpsonResult = simpsonApproximation(f, a, b, n);
+        // Perform all numerical approximations from one pass over the sample points,
+        // in parallel for large n (each worker thread gets its own copy of f)
+        IntegrationResult results;
+        if (n >= PARALLEL_THRESHOLD) {
+            ParallelQuadrature quadrature = new ParallelQuadrature(0);
+            results = quadrature.integrate(f::copy, a, b, n, EnumSet.allOf(IntegrationRule.class));
+            quadrature.shutdown();
+        } else {
+            results = IntegrationEngine.integrate(f, a, b, n, EnumSet.allOf(IntegrationRule.class));
+        }
 
-        // Create the chart and display it along with numerical results
-        calcproject chartApp = new calcproject("Function Plot");
-        JFreeChart chart = chartApp.createChart(f, a, b, n);
+        // Adaptive Simpson picks its own subintervals to meet an error target, with
+        // no more evaluations than the fixed rules above, up to a fixed cap
+        AdaptiveQuadrature.Result adaptiveResult = AdaptiveQuadrature.integrate(f, a, b,
+                ADAPTIVE_TOLERANCE, ADAPTIVE_TOLERANCE,
+                Math.min(results.evaluations(), ADAPTIVE_MAX_EVALUATIONS));
+
+        // Create the chart and display it along with numerical results; the chart
+        // samples f on the event thread, so it gets its own copy
+        JFreeChart chart = createChart(f.copy(), a, b);
 
         ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 600));
+        chartPanel.setPreferredSize(new Dimension(PLOT_WIDTH, 600));
 
         // Create a panel for labels
         JPanel labelPanel = new JPanel();
@@ -208,11 +203,12 @@ public class calcproject extends ApplicationFrame {
 
         // Add styled labels with border and font adjustments
         addStyledLabel(labelPanel, "Numerical Integration Calculations:");
-        addStyledLabel(labelPanel, "Midpoint Approximation: " + midpointResult);
-        addStyledLabel(labelPanel, "Left Sum Approximation: " + leftSumResult);
-        addStyledLabel(labelPanel, "Right Sum Approximation: " + rightSumResult);
-        addStyledLabel(labelPanel, "Trapezoid Approximation: " + trapezoidResult);
-        addStyledLabel(labelPanel, "Simpson Approximation: " + simpsonResult);
+        for (IntegrationRule rule : results.rules()) {
+            addStyledLabel(labelPanel, rule.label() + ": " + results.get(rule));
+        }
+        addStyledLabel(labelPanel, "Adaptive Simpson Approximation: " + adaptiveResult.estimate()
+                + " (" + adaptiveResult.evaluations() + " evaluations"
+                + (adaptiveResult.converged() ? ")" : ", not converged)"));
 
         // Create a frame to hold both chart and labels
         JFrame frame = new JFrame("Function Plot");
@@ -3,21 +3,43 @@
 //Author: Amar Sahbazovic
 //Date: 10/3/2023
 
+import java.io.IOException;
 import java.util.*;
 
 public class calculator {
 
-    public static void main(String[] args) {
+    // Compiled programs for recently entered expressions.
+    private static final RpnProgramCache PROGRAMS = new RpnProgramCache(1024);
+    private static final RpnProgramCache INFIX_PROGRAMS = new RpnProgramCache(1024, InfixCompiler::compile);
+
+    public static void main(String[] args) throws IOException {
+
+        // "--batch [file]" evaluates one expression per line without prompting.
+        if (args.length > 0 && args[0].equals("--batch")) {
+            RpnBatch.run(args);
+            return;
+        }
+
+        // "--infix" reads ordinary infix expressions instead of postfix.
+        boolean infix = args.length > 0 && args[0].equals("--infix");
+        RpnProgramCache programs = infix ? INFIX_PROGRAMS : PROGRAMS;
 
         Scanner input = new Scanner(System.in);
         boolean loopContinue = true;
 
-        System.out.println("Please leave a space between characters. For example, '1 2 + 4 3 - / 5 *'");
+        if (infix) {
+            System.out.println("Enter an infix expression. For example, '(1 + 2) * -3 / 4'");
+        } else {
+            System.out.println("Please leave a space between characters. For example, '1 2 + 4 3 - / 5 *'");
+        }
         System.out.println("To exit the calculator, enter 'exit'.");
 
+        LongStack stack = new LongStack(); // One stack, cleared and reused for every expression.
+        RpnResult result = new RpnResult();
+
         do {
-            Stack<Integer> stack = new Stack<>(); // Create a new stack for each expression.
-            System.out.print("Enter a reverse Polish notation arithmetic expression (or 'exit' to quit): ");
+            System.out.print(infix ? "Enter an arithmetic expression (or 'exit' to quit): "
+                    : "Enter a reverse Polish notation arithmetic expression (or 'exit' to quit): ");
             String expression = input.nextLine();
 
             if (expression.equalsIgnoreCase("exit")) {
@@ -25,10 +47,9 @@ public class calculator {
                 continue; // Skip further processing and exit the loop.
             }
 
-            int result = calculateExpression(expression, stack);
-
-            if (result == -1) {
-                System.out.println("Error in postfix expression, please try again");
+            if (!calculateExpression(expression, programs, stack, result)) {
+                System.out.println(infix ? "Error in expression, please try again"
+                        : "Error in postfix expression, please try again");
             } else {
                 System.out.println("The expression you entered " + expression + " = " + result);
             }
@@ -39,76 +60,36 @@ public class calculator {
     }
 
     // This method will parse through our expression and either calculate result
-    // or return error accordingly.
-    private static int calculateExpression(String expression, Stack<Integer> stack) {
-
-        String[] elements = expression.split(" ");
-
-        for (String element : elements) {
-            if (isOperator(element)) {
-                int operand2 = stack.pop();
-                Integer operand1 = stack.pop();
-                // If an operand is missing and we can't evaluate expression,
-                // then we return postfix notation error.
-                if (operand1 == null) {
-                    return -1;
-                }
-                // Verify if we have any negative operands.
-                if (containsNegative(operand1, operand2)) {
-                    return -1;
-                }
-                int result = evaluateOperation(operand1, operand2, element);
-                if (result == -1) {
-                    return -1;
-                }
-                stack.push(result);
-            } else {
-                stack.push(Integer.valueOf(element));
+    // or return false on error. Compiled programs are cached, so repeating an
+    // expression skips tokenizing and checking it again. Evaluation is exact:
+    // values that overflow a long are promoted to BigInteger.
+    static boolean calculateExpression(String expression, LongStack stack, RpnResult result) {
+        return calculateExpression(expression, PROGRAMS, stack, result);
+    }
+
+    // This method calculates an expression compiled through the given cache,
+    // which decides whether the expression is read as postfix or infix.
+    static boolean calculateExpression(String expression, RpnProgramCache programs, LongStack stack,
+                                       RpnResult result) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+
+        RpnProgram program;
+        try {
+            program = programs.get(expression);
+        } catch (IllegalArgumentException e) {
+            // Unknown token, missing operand or leftover operands.
+            if (Metrics.ENABLED) {
+                Metrics.recordCalculation(System.nanoTime() - start, 0, false);
             }
+            return false;
         }
-
-        // Our verification check that at the end of our operations we have
-	// only 1 item remaining on the stack.
-        if (stack.size() == 1) {
-            return stack.pop();
-        } else {
-            return -1;
+        if (!Metrics.ENABLED) {
+            return program.evaluate(stack, result).isOk();
         }
-    }
-
-    // This method will check whether or not the operands are negative.
-    private static boolean containsNegative(int operand1, int operand2) {
-        return operand1 < 0 || operand2 < 0;
-    }
-
-    // This method checks if an element in the entered expression is an operator.
-    private static boolean isOperator(String element) {
-        return element.equals("+") || element.equals("-") || element.equals("*") || element.equals("/");
-    }
-
-    // This method will perform various artihmetic operations in a switch case
-    // depending on the operator passed through.
-    private static int evaluateOperation(int operand1, int operand2, String operator) {
 
-        switch (operator) {
-
-            case "+":
-                return operand1 + operand2;
-
-            case "-":
-                return operand1 - operand2;
-
-            case "*":
-                return operand1 * operand2;
-
-            case "/":
-                if (operand2 == 0) {
-                    return -1;
-                }
-                return operand1 / operand2;
-
-            default:
-                return -1;
-        }
+        long parsed = System.nanoTime();
+        boolean ok = program.evaluate(stack, result).isOk();
+        Metrics.recordCalculation(parsed - start, System.nanoTime() - parsed, ok);
+        return ok;
     }
 }
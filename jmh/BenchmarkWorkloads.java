@@ -0,0 +1,362 @@
+//Description: The operations measured by the JMH benchmarks in jmh/benchmarks.
+// JMH refuses benchmark classes in the default package, and a class in a
+// named package cannot refer to default-package classes such as Stack or
+// calculator, so the benchmarks get their work from here: each method below
+// does its setup once and returns a LongSupplier that performs one operation
+// per call and returns a value derived from it, which JMH consumes.
+//Date: 10/17/2026
+
+import org.mariuszgromada.math.mxparser.Argument;
+import org.mariuszgromada.math.mxparser.Expression;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+public final class BenchmarkWorkloads {
+	private static final Integer ITEM = 42;
+
+	private BenchmarkWorkloads() {
+	}
+
+	// A workload that holds threads or other resources until it is closed.
+	interface ClosingWorkload extends LongSupplier, AutoCloseable {
+		@Override
+		void close();
+	}
+
+	// ---------------------------------------------------------------- stacks
+
+	public static LongSupplier stackPushPop() {
+		Stack<Integer> stack = new Stack<>();
+		return () -> {
+			stack.push(ITEM);
+			return stack.pop();
+		};
+	}
+
+	public static LongSupplier stackFillDrain(int depth) {
+		Stack<Integer> stack = new Stack<>();
+		return () -> {
+			long sum = 0;
+			for (int j = 0; j < depth; j++) {
+				stack.push(ITEM);
+			}
+			while (!stack.isEmpty()) {
+				sum += stack.pop();
+			}
+			return sum;
+		};
+	}
+
+	// Branching from a deep stack: a snapshot shares its nodes, so forking an
+	// alternative costs the same at any depth.
+	public static LongSupplier snapshotFork(int depth) {
+		Stack<Integer> deep = new Stack<>();
+		for (int j = 0; j < depth; j++) {
+			deep.push(ITEM);
+		}
+		Stack.Snapshot<Integer> base = deep.snapshot();
+		return () -> {
+			Stack<Integer> branch = base.fork();
+			branch.push(ITEM);
+			return branch.pop() + base.push(ITEM).size();
+		};
+	}
+
+	public static LongSupplier intStackPushPop() {
+		IntStack stack = new IntStack();
+		int[] next = new int[1];
+		return () -> {
+			stack.push(next[0]++);
+			return stack.pop();
+		};
+	}
+
+	// Contended push/pop pairs: one instance is shared by every benchmark thread.
+	public static LongSupplier concurrentStackPushPop() {
+		ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+		return () -> {
+			stack.push(ITEM);
+			Integer popped = stack.pop();
+			return popped == null ? 0 : popped;
+		};
+	}
+
+	public static LongSupplier synchronizedStackPushPop() {
+		Stack<Integer> stack = new Stack<>();
+		return () -> {
+			synchronized (stack) {
+				stack.push(ITEM);
+			}
+			Integer popped;
+			synchronized (stack) {
+				popped = stack.pop();
+			}
+			return popped == null ? 0 : popped;
+		};
+	}
+
+	// ------------------------------------------------------------ calculator
+
+	// This method returns the RPN or infix text of the "short" or "long" case.
+	static String expression(String size, boolean infix) {
+		if (size.equals("short")) {
+			return infix ? "(1 + 2) / (4 - 3) * 5" : "1 2 + 4 3 - / 5 *";
+		}
+		StringBuilder rpn = new StringBuilder("1");
+		StringBuilder infixText = new StringBuilder("1");
+		for (int i = 2; i <= 200; i++) {
+			rpn.append(' ').append(i % 97).append(" +");
+			infixText.append(" + ").append(i % 97);
+			if (i % 10 == 0) {
+				rpn.append(" 2 *");
+				infixText.insert(0, '(').append(") * 2");
+			}
+		}
+		return (infix ? infixText : rpn).toString();
+	}
+
+	public static LongSupplier calculateExpression(String size) {
+		String expression = expression(size, false);
+		LongStack stack = new LongStack();
+		RpnResult result = new RpnResult();
+		return () -> {
+			calculator.calculateExpression(expression, stack, result);
+			return result.isOk() ? 1 : 0;
+		};
+	}
+
+	public static LongSupplier calculateInfixExpression(String size) {
+		String expression = expression(size, true);
+		RpnProgramCache programs = new RpnProgramCache(1024, InfixCompiler::compile);
+		LongStack stack = new LongStack();
+		RpnResult result = new RpnResult();
+		return () -> {
+			calculator.calculateExpression(expression, programs, stack, result);
+			return result.isOk() ? 1 : 0;
+		};
+	}
+
+	public static LongSupplier rpnCompile(String size) {
+		String expression = expression(size, false);
+		return () -> RpnProgram.compile(expression).maxDepth();
+	}
+
+	public static LongSupplier infixCompile(String size) {
+		String expression = expression(size, true);
+		return () -> InfixCompiler.compile(expression).maxDepth();
+	}
+
+	// One formula over rows rows, opcode by opcode over blocks of rows.
+	public static LongSupplier columnEvaluate(int rows, boolean doubles) {
+		long[] x = new long[rows];
+		long[] y = new long[rows];
+		double[] xd = new double[rows];
+		double[] yd = new double[rows];
+		for (int i = 0; i < rows; i++) {
+			x[i] = i;
+			y[i] = i % 100 + 1;
+			xd[i] = x[i];
+			yd[i] = y[i];
+		}
+		ColumnEvaluator evaluator = new ColumnEvaluator(RpnProgram.compile("x y + 2 * y /", "x", "y"));
+		boolean[] failed = new boolean[rows];
+		if (doubles) {
+			double[][] columns = { xd, yd };
+			double[] out = new double[rows];
+			return () -> evaluator.evaluate(columns, rows, out, failed) + Double.doubleToLongBits(out[rows - 1]);
+		}
+		long[][] columns = { x, y };
+		long[] out = new long[rows];
+		return () -> evaluator.evaluate(columns, rows, out, failed) + out[rows - 1];
+	}
+
+	// ----------------------------------------------------------- integration
+
+	// Parsing per sample point (the old calcproject lambda) against parse-once.
+	public static LongSupplier mxparserExpressionPerCall(String function) {
+		double[] x = new double[1];
+		return () -> Double.doubleToLongBits(new Expression(function, new Argument("x", x[0]++)).calculate());
+	}
+
+	public static LongSupplier compiledFunction(String function) {
+		CompiledFunction f = new CompiledFunction(function);
+		double[] x = new double[1];
+		return () -> Double.doubleToLongBits(f.applyAsDouble(x[0]++));
+	}
+
+	// This method returns a plain Java integrand, so the rules themselves are
+	// measured: "poly" is smooth and "peak" is sharply peaked at 0.
+	static DoubleUnaryOperator integrand(String name) {
+		if (name.equals("peak")) {
+			return x -> 1 / (1e-4 + x * x);
+		}
+		return x -> x * x + 3 * x + 1;
+	}
+
+	// Adaptive refinement on the peaked integrand, to compare against a large
+	// fixed n of comparable accuracy.
+	public static LongSupplier adaptive(double tolerance) {
+		DoubleUnaryOperator peak = integrand("peak");
+		return () -> Double.doubleToLongBits(
+				AdaptiveQuadrature.integrate(peak, -1, 1, tolerance, 1e-12, 10_000_000).estimate());
+	}
+
+	// One of calcproject's single-rule approximations over [0, 10], or [-1, 1]
+	// for the peaked integrand.
+	public static LongSupplier approximation(String rule, int n, String integrandName) {
+		DoubleUnaryOperator f = integrand(integrandName);
+		double a = integrandName.equals("peak") ? -1 : 0;
+		double b = integrandName.equals("peak") ? 1 : 10;
+		switch (rule) {
+			case "midpoint":
+				return () -> Double.doubleToLongBits(calcproject.midpointApproximation(f, a, b, n));
+			case "leftSum":
+				return () -> Double.doubleToLongBits(calcproject.leftSumApproximation(f, a, b, n));
+			case "rightSum":
+				return () -> Double.doubleToLongBits(calcproject.rightSumApproximation(f, a, b, n));
+			case "trapezoid":
+				return () -> Double.doubleToLongBits(calcproject.trapezoidApproximation(f, a, b, n));
+			case "simpson":
+				return () -> Double.doubleToLongBits(calcproject.simpsonApproximation(f, a, b, n));
+			default:
+				throw new IllegalArgumentException("Unknown rule " + rule);
+		}
+	}
+
+	public static LongSupplier allRules(int n) {
+		DoubleUnaryOperator f = integrand("poly");
+		EnumSet<IntegrationRule> rules = EnumSet.allOf(IntegrationRule.class);
+		return () -> Double.doubleToLongBits(IntegrationEngine.integrate(f, 0, 10, n, rules).get(IntegrationRule.SIMPSON));
+	}
+
+	public static LongSupplier parallelAllRules(int n) {
+		DoubleUnaryOperator f = integrand("poly");
+		EnumSet<IntegrationRule> rules = EnumSet.allOf(IntegrationRule.class);
+		ParallelQuadrature quadrature = new ParallelQuadrature(0);
+		return new ClosingWorkload() {
+			@Override
+			public long getAsLong() {
+				return Double.doubleToLongBits(quadrature.integrate(f, 0, 10, n, rules).get(IntegrationRule.SIMPSON));
+			}
+
+			@Override
+			public void close() {
+				quadrature.shutdown();
+			}
+		};
+	}
+
+	// Simpson at n and then at 2n, as a user refining a result would run it,
+	// with or without a sample cache shared by the two runs. A cache lookup
+	// costs about one memory access, so it only pays when f is expensive; the
+	// integrand is a sine series whose cost grows with its number of terms,
+	// from a few hundred nanoseconds to what mxparser spends on a call.
+	public static LongSupplier refine(int n, int terms, boolean cached) {
+		DoubleUnaryOperator series = x -> {
+			double sum = 0;
+			for (int k = 1; k <= terms; k++) {
+				sum += Math.sin(k * x) / k;
+			}
+			return sum;
+		};
+		EnumSet<IntegrationRule> simpson = EnumSet.of(IntegrationRule.SIMPSON);
+		return () -> {
+			SampleCache samples = new SampleCache(1 << 18);
+			DoubleUnaryOperator g = cached ? samples.memoize(series) : series;
+			double sum = IntegrationEngine.integrate(g, 0, 10, n, simpson).get(IntegrationRule.SIMPSON);
+			g = cached ? samples.memoize(series) : series;
+			sum += IntegrationEngine.integrate(g, 0, 10, 2 * n, simpson).get(IntegrationRule.SIMPSON);
+			return Double.doubleToLongBits(sum);
+		};
+	}
+
+	// ---------------------------------------------------------------- crypto
+
+	// A synthetic code book and a shifted alphabet stand in for the data files.
+	private static final class CodeBook {
+		final HashTable table = new HashTable();
+		final String[] decode = new String[763];
+		final SubstitutionCipher cipher;
+		final PhraseTrie phrases;
+
+		CodeBook() {
+			for (int i = 0; i < decode.length; i++) {
+				decode[i] = "WORD" + i;
+				table.insert(decode[i], i + 1);
+			}
+			char[] decipherArray = new char[26];
+			for (int i = 0; i < 26; i++) {
+				decipherArray[i] = (char) ('A' + (i + 3) % 26);
+			}
+			cipher = new SubstitutionCipher(decipherArray);
+			phrases = PhraseTrie.build(decode, table);
+		}
+
+		// This method returns words of sample text as fresh strings, so equals()
+		// cannot short-circuit on identity; about a third are in the code book.
+		String[] probes() {
+			String[] probes = sampleText(64 * 1024, decode).toUpperCase().split(" ");
+			for (int i = 0; i < probes.length; i++) {
+				probes[i] = new String(probes[i]);
+			}
+			return probes;
+		}
+	}
+
+	// Code book lookups against our HashTable, the phrase trie and java.util.HashMap.
+	public static LongSupplier codeBookLookup(String implementation) {
+		CodeBook book = new CodeBook();
+		String[] probes = book.probes();
+		int[] next = new int[1];
+		switch (implementation) {
+			case "HashTable":
+				return () -> book.table.getOrDefault(probes[next[0]++ % probes.length], -1);
+			case "PhraseTrie":
+				return () -> book.phrases.getOrDefault(probes[next[0]++ % probes.length], -1);
+			case "HashMap":
+				Map<String, Integer> hashMap = new HashMap<>();
+				for (int i = 0; i < book.decode.length; i++) {
+					hashMap.put(book.decode[i], i + 1);
+				}
+				return () -> hashMap.getOrDefault(probes[next[0]++ % probes.length], -1);
+			default:
+				throw new IllegalArgumentException("Unknown implementation " + implementation);
+		}
+	}
+
+	public static LongSupplier encryptMessage(int kilobytes) {
+		CodeBook book = new CodeBook();
+		String plain = sampleText(kilobytes * 1024, book.decode);
+		return () -> Crypto.encryptMessage(plain, book.phrases, book.cipher).length();
+	}
+
+	public static LongSupplier decryptMessage(int kilobytes) {
+		CodeBook book = new CodeBook();
+		String encrypted = Crypto.encryptMessage(sampleText(kilobytes * 1024, book.decode), book.phrases, book.cipher);
+		return () -> Crypto.decryptMessage(encrypted, book.table, book.cipher, book.decode).length();
+	}
+
+	// This method builds roughly length characters of text where about a third of
+	// the words are in the code book.
+	static String sampleText(int length, String[] codeWords) {
+		String[] plainWords = { "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "army", "river" };
+		StringBuilder sb = new StringBuilder(length + 16);
+		long seed = 12345;
+		while (sb.length() < length) {
+			seed = seed * 6364136223846793005L + 1442695040888963407L;
+			int pick = (int) ((seed >>> 33) % 3);
+			int index = (int) ((seed >>> 40) & 0xffff);
+			String word = pick == 0 ? codeWords[index % codeWords.length] : plainWords[index % plainWords.length];
+			if (sb.length() > 0) {
+				sb.append(' ');
+			}
+			sb.append(word);
+		}
+		return sb.toString();
+	}
+
+}
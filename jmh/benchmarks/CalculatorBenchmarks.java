@@ -0,0 +1,80 @@
+//Description: JMH benchmarks for the calculator: compiling and evaluating a
+// short and a long expression in RPN and infix form, and evaluating one
+// formula over a million rows of columnar data.
+//Date: 10/17/2026
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmarks {
+
+	@State(Scope.Thread)
+	public static class Expression {
+		@Param({ "short", "long" })
+		String expression;
+
+		@Param({ "rpn", "infix" })
+		String syntax;
+
+		LongSupplier calculate;
+		LongSupplier compile;
+
+		@Setup
+		public void setup() {
+			boolean infix = syntax.equals("infix");
+			calculate = Workloads.create(infix ? "calculateInfixExpression" : "calculateExpression", expression);
+			compile = Workloads.create(infix ? "infixCompile" : "rpnCompile", expression);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Columns extends Workloads.WorkloadState {
+		@Param({ "1048576" })
+		int rows;
+
+		@Param({ "long", "double" })
+		String type;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("columnEvaluate", rows, type.equals("double"));
+		}
+	}
+
+	// calculator.calculateExpression, through the program cache.
+	@Benchmark
+	public long calculateExpression(Expression state) {
+		return state.calculate.getAsLong();
+	}
+
+	// RpnProgram.compile or InfixCompiler.compile from scratch.
+	@Benchmark
+	public long compile(Expression state) {
+		return state.compile.getAsLong();
+	}
+
+	@Benchmark
+	public long columnEvaluate(Columns state) {
+		return state.work.getAsLong();
+	}
+
+}
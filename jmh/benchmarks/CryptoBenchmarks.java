@@ -0,0 +1,71 @@
+//Description: JMH benchmarks for Crypto: code book lookups in our HashTable,
+// the phrase trie and java.util.HashMap, and encrypting and decrypting 64 KB
+// and 1 MB of text with a synthetic code book.
+//Date: 10/17/2026
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmarks {
+
+	@State(Scope.Thread)
+	public static class Lookup extends Workloads.WorkloadState {
+		@Param({ "HashTable", "PhraseTrie", "HashMap" })
+		String implementation;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("codeBookLookup", implementation);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Text {
+		@Param({ "64", "1024" })
+		int kb;
+
+		LongSupplier encrypt;
+		LongSupplier decrypt;
+
+		@Setup
+		public void setup() {
+			encrypt = Workloads.create("encryptMessage", kb);
+			decrypt = Workloads.create("decryptMessage", kb);
+		}
+	}
+
+	@Benchmark
+	public long codeBookLookup(Lookup state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long encryptMessage(Text state) {
+		return state.encrypt.getAsLong();
+	}
+
+	@Benchmark
+	public long decryptMessage(Text state) {
+		return state.decrypt.getAsLong();
+	}
+
+}
@@ -0,0 +1,129 @@
+//Description: JMH benchmarks for numerical integration: mxparser parsing per
+// call against a parse-once CompiledFunction, each calcproject approximation
+// at several n, all rules from one pass sequentially and in parallel,
+// adaptive Simpson against a large fixed n on a peaked integrand, and a
+// refinement from n to 2n with and without the sample cache.
+//Date: 10/17/2026
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegrationBenchmarks {
+
+	private static final String FUNCTION = "x^2 + 3*x + 1";
+
+	@State(Scope.Thread)
+	public static class Function extends Workloads.WorkloadState {
+		@Param({ "mxparserPerCall", "compiled" })
+		String evaluator;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create(evaluator.equals("compiled") ? "compiledFunction" : "mxparserExpressionPerCall",
+					FUNCTION);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Approximation extends Workloads.WorkloadState {
+		@Param({ "midpoint", "leftSum", "rightSum", "trapezoid", "simpson" })
+		String rule;
+
+		@Param({ "1000", "100000", "1000000" })
+		int n;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("approximation", rule, n, "poly");
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class AllRules extends Workloads.WorkloadState {
+		@Param({ "1000", "100000", "1000000" })
+		int n;
+
+		@Param({ "sequential", "parallel" })
+		String engine;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create(engine.equals("parallel") ? "parallelAllRules" : "allRules", n);
+		}
+	}
+
+	// Adaptive Simpson to a tolerance against Simpson at a fixed large n, both
+	// on the peaked integrand.
+	@State(Scope.Thread)
+	public static class Peak extends Workloads.WorkloadState {
+		@Param({ "adaptive", "simpson" })
+		String method;
+
+		@Setup
+		public void setup() {
+			work = method.equals("adaptive") ? Workloads.create("adaptive", 1e-9)
+					: Workloads.create("approximation", "simpson", 1_000_000, "peak");
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Refine extends Workloads.WorkloadState {
+		@Param({ "50000" })
+		int n;
+
+		@Param({ "16", "64" })
+		int terms;
+
+		@Param({ "false", "true" })
+		boolean cache;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("refine", n, terms, cache);
+		}
+	}
+
+	@Benchmark
+	public long function(Function state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long approximation(Approximation state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long allRules(AllRules state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long peak(Peak state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long refine(Refine state) {
+		return state.work.getAsLong();
+	}
+
+}
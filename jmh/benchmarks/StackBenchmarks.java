@@ -0,0 +1,98 @@
+//Description: JMH benchmarks for the stacks: uncontended push/pop pairs,
+// filling and draining to a depth, forking a snapshot of a deep stack, and
+// push/pop pairs contended by several threads on the lock-free stack against
+// a synchronized Stack.
+//Date: 10/17/2026
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackBenchmarks {
+
+	@State(Scope.Thread)
+	public static class PushPop extends Workloads.WorkloadState {
+		@Param({ "Stack", "IntStack" })
+		String implementation;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create(implementation.equals("Stack") ? "stackPushPop" : "intStackPushPop");
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class FillDrain extends Workloads.WorkloadState {
+		@Param({ "16", "1024" })
+		int depth;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("stackFillDrain", depth);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SnapshotFork extends Workloads.WorkloadState {
+		@Param({ "1024" })
+		int depth;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create("snapshotFork", depth);
+		}
+	}
+
+	// One stack shared by every thread of the benchmark.
+	@State(Scope.Benchmark)
+	public static class Contended extends Workloads.WorkloadState {
+		@Param({ "ConcurrentStack", "SynchronizedStack" })
+		String implementation;
+
+		@Setup
+		public void setup() {
+			work = Workloads.create(implementation.equals("ConcurrentStack")
+					? "concurrentStackPushPop" : "synchronizedStackPushPop");
+		}
+	}
+
+	@Benchmark
+	public long pushPop(PushPop state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long fillDrain(FillDrain state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	public long snapshotFork(SnapshotFork state) {
+		return state.work.getAsLong();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public long contendedPushPop(Contended state) {
+		return state.work.getAsLong();
+	}
+
+}
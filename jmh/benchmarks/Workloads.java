@@ -0,0 +1,51 @@
+//Description: Looks up the workloads in BenchmarkWorkloads for the JMH
+// benchmarks in this package. That class is in the default package, which
+// code in a named package cannot refer to, so its factory methods are found
+// by name once per trial; the returned LongSupplier is then called directly
+// in the measured loop, with no reflection on the hot path.
+//Date: 10/17/2026
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.LongSupplier;
+
+final class Workloads {
+
+	private Workloads() {
+	}
+
+	// This method calls the factory method with the given name and arguments.
+	static LongSupplier create(String name, Object... args) {
+		try {
+			for (Method method : Class.forName("BenchmarkWorkloads").getMethods()) {
+				if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+					return (LongSupplier) method.invoke(null, args);
+				}
+			}
+		} catch (ClassNotFoundException | IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Setting up " + name + " failed", e.getCause());
+		}
+		throw new IllegalArgumentException("No workload " + name + " with " + args.length + " arguments");
+	}
+
+	// Base for the benchmark states: holds one workload and releases it when
+	// the trial ends.
+	abstract static class WorkloadState {
+		LongSupplier work;
+
+		@TearDown(Level.Trial)
+		public void close() throws Exception {
+			if (work instanceof AutoCloseable) {
+				((AutoCloseable) work).close();
+			}
+		}
+	}
+
+}
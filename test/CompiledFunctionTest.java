@@ -0,0 +1,84 @@
+//Description: Tests that a CompiledFunction picks its evaluator once, when it
+// is created, so parallel integration gives the same bits for any number of
+// threads whichever evaluator is used; that compiling is opt-in; and that
+// compiled functions agree with mxparser to within rounding.
+//Date: 10/17/2026
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledFunctionTest {
+
+    @Test
+    void compilingIsOptIn() {
+        assertFalse(new CompiledFunction("x*x + 3*x + 1").isCompiled());
+    }
+
+    @Test
+    void evaluatorIsChosenBeforeTheFirstCall() {
+        CompiledFunction polynomial = new CompiledFunction("x*x + 3*x + 1", true);
+        assertTrue(polynomial.isCompiled());
+        assertTrue(polynomial.copy().isCompiled());
+        assertEquals(11.0, polynomial.applyAsDouble(2));
+
+        CompiledFunction sine = new CompiledFunction("sin(x) + x", true);
+        for (int i = 0; i < 5000; i++) {
+            sine.applyAsDouble(i);
+        }
+        assertFalse(sine.isCompiled());
+    }
+
+    @Test
+    void parallelResultsDoNotDependOnThreadCount() {
+        for (String function : new String[] { "x*x/3 + 1/x", "sin(x)/x" }) {
+            CompiledFunction f = new CompiledFunction(function, true);
+            // Several blocks, each well past the old compilation threshold
+            int n = 3 * (1 << 15);
+            IntegrationResult reference = integrate(f, 1, n);
+            for (int threads : new int[] { 2, 4 }) {
+                IntegrationResult result = integrate(f, threads, n);
+                for (IntegrationRule rule : reference.rules()) {
+                    assertEquals(Double.doubleToRawLongBits(reference.get(rule)),
+                            Double.doubleToRawLongBits(result.get(rule)), function + " " + rule + " " + threads);
+                }
+            }
+        }
+    }
+
+    // mxparser rounds its results and the generated code does not, so the two
+    // may differ in the last bits but not by more.
+    @Test
+    void compiledFunctionsAgreeWithMxparser() {
+        for (String function : new String[] { "x*x/3 + 1/x", "(x+1)*(x-2)/(x*x+1)", "x*x*x - 7*x + 2" }) {
+            CompiledFunction compiled = new CompiledFunction(function, true);
+            CompiledFunction parsed = new CompiledFunction(function, false);
+            assertTrue(compiled.isCompiled());
+            for (int i = 1; i <= 10_000; i++) {
+                double x = -50 + i * 0.00731;
+                double expected = parsed.applyAsDouble(x);
+                assertEquals(expected, compiled.applyAsDouble(x), 1e-12 * Math.max(1, Math.abs(expected)),
+                        function + " at " + x);
+            }
+            IntegrationResult expected = integrate(parsed, 1, 1 << 12);
+            IntegrationResult result = integrate(compiled, 1, 1 << 12);
+            for (IntegrationRule rule : expected.rules()) {
+                assertEquals(expected.get(rule), result.get(rule), 1e-12 * Math.max(1, Math.abs(expected.get(rule))),
+                        function + " " + rule);
+            }
+        }
+    }
+
+    private static IntegrationResult integrate(CompiledFunction f, int threads, int n) {
+        ParallelQuadrature quadrature = new ParallelQuadrature(threads);
+        try {
+            return quadrature.integrate(f::copy, 1, 7, n, EnumSet.allOf(IntegrationRule.class));
+        } finally {
+            quadrature.shutdown();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+//Description: Tests that CryptoStream gives each line exactly what
+// encryptMessage and decryptMessage give for it, including lines that end in
+// spaces or in a word of punctuation alone, which String.split drops, and
+// words with tabs in them, which split on spaces does not break.
+//Date: 10/17/2026
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CryptoStreamTest {
+
+	private static final String[] LINES = {
+			"the cat sat", "the cat sat ", "the cat sat   ", "the cat !", "the cat ! ?? ",
+			" the cat", "  the  cat  ", "the ! cat", "new york is big ", "new york",
+			"new york !", "   ", "!", "", "hello, world. ", "the\tcat sat", "new\tyork \t", };
+
+	private final String[] decode = { "THE", "CAT", "NEW YORK", "IS", "BIG", "WORLD" };
+	private final HashTable table = new HashTable();
+	private final SubstitutionCipher cipher;
+	private final PhraseTrie phrases;
+
+	CryptoStreamTest() {
+		for (int i = 0; i < decode.length; i++) {
+			table.insert(decode[i], i + 1);
+		}
+		char[] decipherArray = new char[26];
+		for (int i = 0; i < 26; i++) {
+			decipherArray[i] = (char) ('A' + (i + 3) % 26);
+		}
+		cipher = new SubstitutionCipher(decipherArray);
+		phrases = PhraseTrie.build(decode, table);
+	}
+
+	@Test
+	void encryptionMatchesEncryptMessageLineForLine() throws IOException {
+		StringBuilder expected = new StringBuilder();
+		for (String line : LINES) {
+			expected.append(Crypto.encryptMessage(line, phrases, cipher)).append('\n');
+		}
+		assertEquals(expected.toString(), stream(String.join("\n", LINES) + "\n", true));
+	}
+
+	@Test
+	void trailingSpacesEndTheLastLineToo() throws IOException {
+		assertEquals(Crypto.encryptMessage("the cat ! ", phrases, cipher), stream("the cat ! ", true));
+	}
+
+	@Test
+	void decryptionMatchesDecryptMessageLineForLine() throws IOException {
+		String[] lines = { "1 2", "1 2 ", "1 2   ", "1 XYZ 3 ", "99 ", "1\t2 4" };
+		StringBuilder expected = new StringBuilder();
+		for (String line : lines) {
+			expected.append(Crypto.decryptMessage(line, table, cipher, decode)).append('\n');
+		}
+		assertEquals(expected.toString(), stream(String.join("\n", lines) + "\n", false));
+	}
+
+	// A line longer than a pipeline chunk is cut mid-line; the spaces at the cut
+	// must not be taken for the end of the line, and the phrase "new york" that
+	// straddles the end of the first chunk must not be cut in two.
+	@Test
+	void pipelineMatchesEncryptMessageOnALongLine() throws IOException {
+		String[] words = { "the", "cat", "is", "big", "!", "sat", "--", "world.", "new york", "york" };
+		Random random = new Random(1);
+		StringBuilder line = new StringBuilder();
+		// CryptoPipeline reads 4 MB chunks; the first one ends in "new y".
+		int firstChunk = 1 << 22;
+		while (line.length() < firstChunk - 64) {
+			line.append(words[random.nextInt(words.length)]).append(random.nextInt(4) == 0 ? "  " : " ");
+		}
+		if ((firstChunk - "new y".length() - line.length()) % 2 != 0) {
+			line.append("is ");
+		}
+		while (line.length() < firstChunk - "new y".length()) {
+			line.append("a ");
+		}
+		line.append("new york ");
+		while (line.length() < 5 << 20) {
+			line.append(words[random.nextInt(words.length)]).append(random.nextInt(4) == 0 ? "  " : " ");
+		}
+		String text = line.toString();
+		CryptoPipeline pipeline = new CryptoPipeline(phrases, cipher, decode, true, 2);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			pipeline.transform(Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1))),
+					Channels.newChannel(out));
+		} finally {
+			pipeline.shutdown();
+		}
+		assertEquals(Crypto.encryptMessage(text, phrases, cipher), out.toString(StandardCharsets.ISO_8859_1));
+	}
+
+	private String stream(String text, boolean encrypt) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new CryptoStream(phrases, cipher, decode, encrypt).transform(
+				Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.ISO_8859_1))),
+				Channels.newChannel(out));
+		return out.toString(StandardCharsets.ISO_8859_1);
+	}
+
+}
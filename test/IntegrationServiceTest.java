@@ -0,0 +1,37 @@
+//Description: Tests for the JSON job reader of IntegrationService: every JSON
+// string escape is decoded, unknown escapes are rejected, and a string cut
+// off inside an escape is reported as unterminated.
+//Date: 10/17/2026
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntegrationServiceTest {
+
+    @Test
+    void escapesAreDecoded() {
+        IntegrationService.Job job = IntegrationService.parseJson(
+                "{\"id\": \"a\\\"b\", \"function\": \"x\\r\\n\\t\\b\\f\\/\\\\\\u0041\", \"n\": 10}");
+        assertEquals("a\"b", job.id);
+        assertEquals("x\r\n\t\b\f/\\A", job.function);
+        assertEquals(10, job.n);
+    }
+
+    @Test
+    void unknownEscapesAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> IntegrationService.parseJson("{\"function\": \"sin(x)\\q\"}"));
+        assertEquals("bad escape \\q", e.getMessage());
+    }
+
+    @Test
+    void truncatedEscapesAreUnterminatedStrings() {
+        for (String line : new String[] { "{\"function\": \"x\\u00", "{\"function\": \"x\\" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> IntegrationService.parseJson(line));
+            assertEquals("unterminated string", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+//Description: Tests for RpnProgram compilation errors, and that batch mode
+// reports them on the offending line instead of failing the whole input.
+//Date: 10/17/2026
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RpnProgramTest {
+
+	// Leftover operands used to overrun the code buffer before the depth check.
+	@Test
+	void leftoverOperandsAreReported() {
+		for (String expression : new String[] { "1 2", "1 2 3", "1 2 3 4 5 +" }) {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+					() -> RpnProgram.compile(expression));
+			assertTrue(e.getMessage().startsWith("Expression must leave exactly one value"), e.getMessage());
+		}
+	}
+
+	@Test
+	void leftoverVariablesAreReported() {
+		assertThrows(IllegalArgumentException.class, () -> RpnProgram.compile("x y", "x", "y"));
+	}
+
+	@Test
+	void batchReportsTheErrorOnItsLine() {
+		RpnProgramCache programs = new RpnProgramCache(16, RpnProgram::compile);
+		LongStack stack = new LongStack();
+		RpnResult result = new RpnResult();
+		assertEquals("3", RpnBatch.evaluateLine("1 2 +", programs, stack, result));
+		assertTrue(RpnBatch.evaluateLine("1 2", programs, stack, result).startsWith("error: "));
+		assertEquals("6", RpnBatch.evaluateLine("1 2 3 + +", programs, stack, result));
+	}
+
+}
@@ -0,0 +1,74 @@
+//Description: Tests for SampleCache: values survive eviction correctly, the
+// size bound holds, a refinement from n to 2n reuses every old sample, and
+// concurrent jobs sharing a cache all see correct values.
+//Date: 10/17/2026
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SampleCacheTest {
+
+    private static final DoubleUnaryOperator LINE = x -> 3 * x + 1;
+
+    @Test
+    void evictionKeepsValuesCorrectAndSizeBounded() {
+        SampleCache cache = new SampleCache(500);
+        SampleCache.Memo memo = cache.memoize(LINE);
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            double x = random.nextInt(2000) * 0.5;
+            assertEquals(3 * x + 1, memo.applyAsDouble(x));
+            assertTrue(cache.size() <= 500);
+        }
+        assertTrue(memo.hits() > 0);
+    }
+
+    @Test
+    void refinementReusesEveryEarlierSample() {
+        SampleCache cache = new SampleCache(1 << 16);
+        EnumSet<IntegrationRule> rules = EnumSet.allOf(IntegrationRule.class);
+        IntegrationEngine.integrate(cache.memoize(Math::sin), 0.1, 1.7, 777, rules);
+        SampleCache.Memo refined = cache.memoize(Math::sin);
+        IntegrationEngine.integrate(refined, 0.1, 1.7, 2 * 777, rules);
+        // The n + 1 grid points and n midpoints of the first run
+        assertEquals(2 * 777 + 1, refined.hits());
+    }
+
+    @Test
+    void concurrentJobsShareOneCache() throws Exception {
+        SampleCache cache = new SampleCache(1 << 12);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Long>> jobs = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                jobs.add(pool.submit(() -> {
+                    SampleCache.Memo memo = cache.memoize(LINE);
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50_000; i++) {
+                        double x = random.nextInt(10_000) * 0.25;
+                        assertEquals(3 * x + 1, memo.applyAsDouble(x));
+                    }
+                    return memo.hits();
+                }));
+            }
+            for (Future<Long> job : jobs) {
+                assertTrue(job.get() > 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(cache.size() <= 1 << 12);
+    }
+}